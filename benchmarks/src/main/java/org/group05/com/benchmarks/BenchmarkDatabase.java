@@ -0,0 +1,114 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.MySQLEntityManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A private in-memory H2 database in MySQL mode holding the tables of the benchmarks: {@code employees}
+ * and {@code salaries} for the entities of the application, {@code narrow_rows} and {@code wide_rows} for
+ * {@link NarrowRow} and {@link WideRow}. The database lives until {@link #close()}.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final String url;
+    private final List<Connection> connections = new ArrayList<>();
+    private final Connection connection;
+
+    public BenchmarkDatabase() {
+        this.url = "jdbc:h2:mem:benchmark" + DATABASES.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+        this.connection = connect();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE employees (emp_no INT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(50), "
+                    + "last_name VARCHAR(50), hire_date DATE)");
+            statement.execute("CREATE TABLE salaries (id INT AUTO_INCREMENT PRIMARY KEY, salary INT, from_date DATE, "
+                    + "to_date DATE, emp_no INT)");
+            statement.execute("CREATE TABLE narrow_rows (id INT AUTO_INCREMENT PRIMARY KEY, grp INT, name VARCHAR(50))");
+            statement.execute("CREATE TABLE wide_rows (id INT AUTO_INCREMENT PRIMARY KEY, grp INT, "
+                    + "text_1 VARCHAR(50), text_2 VARCHAR(50), text_3 VARCHAR(50), text_4 VARCHAR(50), text_5 VARCHAR(50), "
+                    + "int_1 INT, int_2 INT, int_3 INT, int_4 INT, long_1 BIGINT, long_2 BIGINT, "
+                    + "double_1 DOUBLE, double_2 DOUBLE, amount DECIMAL(12, 2), date_1 DATE, date_2 DATE, active BOOLEAN)");
+        } catch (SQLException e) {
+            throw new RuntimeException("Error creating the benchmark database", e);
+        }
+    }
+
+    /**
+     * A new connection to the database, closed with it.
+     */
+    public Connection connect() {
+        try {
+            Connection newConnection = DriverManager.getConnection(url, "sa", "");
+            connections.add(newConnection);
+            return newConnection;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error connecting to the benchmark database", e);
+        }
+    }
+
+    public EntityManager createEntityManager() {
+        return new MySQLEntityManager(connect());
+    }
+
+    /**
+     * Inserts {@code rows} narrow rows, all in group 0, with ids from 1.
+     */
+    public void seedNarrowRows(int rows) {
+        execute("INSERT INTO narrow_rows (grp, name) SELECT 0, CONCAT('row ', n) FROM SYSTEM_RANGE(1, ?) AS numbers(n)", rows);
+    }
+
+    /**
+     * Inserts {@code rows} wide rows, all in group 0, with ids from 1 and every column set.
+     */
+    public void seedWideRows(int rows) {
+        execute("INSERT INTO wide_rows (grp, text_1, text_2, text_3, text_4, text_5, int_1, int_2, int_3, int_4, "
+                + "long_1, long_2, double_1, double_2, amount, date_1, date_2, active) "
+                + "SELECT 0, CONCAT('a', n), CONCAT('b', n), CONCAT('c', n), CONCAT('d', n), CONCAT('e', n), "
+                + "n, n + 1, n + 2, n + 3, n * 1000, n * 2000, n / 3.0, n / 7.0, n * 1.25, "
+                + "DATEADD(DAY, n, DATE '2000-01-01'), DATEADD(DAY, n, DATE '2010-01-01'), MOD(n, 2) = 0 "
+                + "FROM SYSTEM_RANGE(1, ?) AS numbers(n)", rows);
+    }
+
+    public void truncate(String... tables) {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : tables) {
+                statement.execute("TRUNCATE TABLE " + table + " RESTART IDENTITY");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error truncating the benchmark tables", e);
+        }
+    }
+
+    /**
+     * Closes every connection, which drops the database.
+     */
+    @Override
+    public void close() {
+        for (Connection open : connections) {
+            try {
+                open.close();
+            } catch (SQLException ignored) {
+                // The database goes away with its last connection anyway
+            }
+        }
+        connections.clear();
+    }
+
+    private void execute(String sql, int rows) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, rows);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeding the benchmark database", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.entity.Employee;
+import org.group05.com.entity.Salary;
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.repository.IRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting an {@link Employee} with {@code salaries} new {@link Salary} children, which the
+ * {@code cascade = "ALL"} of {@code Employee.salaries} inserts along with it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CascadeInsertBenchmark {
+    private static final Date DATE = Date.valueOf("2020-01-01");
+
+    @Param({"0", "10", "100"})
+    public int salaries;
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private IRepository<Employee> repository;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        entityManager = database.createEntityManager();
+        repository = entityManager.createRepo(Employee.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTables() {
+        database.truncate("salaries", "employees");
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Employee insertWithSalaries() {
+        entityManager.clear();
+        List<Salary> children = new ArrayList<>(salaries);
+        for (int i = 0; i < salaries; i++) {
+            children.add(new Salary(1000 + i, DATE, DATE));
+        }
+        return repository.insert(new Employee("First", "Last", DATE, children));
+    }
+}
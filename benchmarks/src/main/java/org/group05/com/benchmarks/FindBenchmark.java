@@ -0,0 +1,62 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.repository.IRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code find} by primary key when the entity is already in the identity map, and when it has to be read
+ * from the database. {@link NarrowRow} is not {@code @Cacheable}, so a miss always runs the query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindBenchmark {
+    private static final int ROWS = 1000;
+    private static final Integer ID = ROWS / 2;
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private IRepository<NarrowRow> repository;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        database.seedNarrowRows(ROWS);
+        entityManager = database.createEntityManager();
+        repository = entityManager.createRepo(NarrowRow.class);
+        repository.find(ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        database.close();
+    }
+
+    @Benchmark
+    public NarrowRow identityMapHit() {
+        return repository.find(ID);
+    }
+
+    @Benchmark
+    public NarrowRow identityMapMiss() {
+        entityManager.clear();
+        return repository.find(ID);
+    }
+}
@@ -0,0 +1,81 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.repository.IRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting {@code rows} entities one {@code insert} at a time against a single {@code insertAll}, which
+ * writes them as multi-row {@code INSERT} statements of {@code database.batch.size} rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private IRepository<NarrowRow> repository;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        entityManager = database.createEntityManager();
+        repository = entityManager.createRepo(NarrowRow.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyTable() {
+        database.truncate("narrow_rows");
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        database.close();
+    }
+
+    @Benchmark
+    public int insertOneByOne() {
+        entityManager.clear();
+        for (NarrowRow row : newRows()) {
+            repository.insert(row);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<NarrowRow> insertAll() {
+        entityManager.clear();
+        return repository.insertAll(newRows());
+    }
+
+    private List<NarrowRow> newRows() {
+        List<NarrowRow> newRows = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            newRows.add(new NarrowRow(1, "row " + i));
+        }
+        return newRows;
+    }
+}
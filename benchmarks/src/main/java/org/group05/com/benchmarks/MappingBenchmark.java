@@ -0,0 +1,67 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.repository.IRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading {@code rows} rows into new entities, i.e. {@code RepositoryImpl.mapResultSetToEntity} for every
+ * row, on a three-column and a 19-column table. The identity map is cleared first so no row is a hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+    @Param({"1", "100", "1000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private IRepository<NarrowRow> narrowRows;
+    private IRepository<WideRow> wideRows;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        database.seedNarrowRows(rows);
+        database.seedWideRows(rows);
+        entityManager = database.createEntityManager();
+        narrowRows = entityManager.createRepo(NarrowRow.class);
+        wideRows = entityManager.createRepo(WideRow.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        database.close();
+    }
+
+    @Benchmark
+    public List<NarrowRow> narrowRows() {
+        entityManager.clear();
+        return narrowRows.find("grp", "0");
+    }
+
+    @Benchmark
+    public List<WideRow> wideRows() {
+        entityManager.clear();
+        return wideRows.find("grp", "0");
+    }
+}
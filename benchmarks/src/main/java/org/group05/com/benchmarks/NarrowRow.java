@@ -0,0 +1,33 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.annotations.Column;
+import org.group05.com.annotations.Entity;
+import org.group05.com.annotations.Id;
+
+/**
+ * A three-column entity, for the per-row overhead of mapping.
+ */
+@Entity(tableName = "narrow_rows")
+public class NarrowRow {
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "grp")
+    private int group;
+
+    @Column(name = "name")
+    private String name;
+
+    public NarrowRow() {
+    }
+
+    public NarrowRow(int group, String name) {
+        this.group = group;
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+}
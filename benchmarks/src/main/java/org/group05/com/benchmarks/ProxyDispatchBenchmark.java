@@ -0,0 +1,92 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.repository.IRepository;
+import org.group05.com.repository.QueryPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of calling a repository through the proxy of a repository interface rather than directly: the
+ * {@code RepositoryProxyHandler} lookup, argument spreading and metrics. Each pair does the same work, once
+ * with nothing to do ({@code getEntityClass}), once served by the identity map and once running a query.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyDispatchBenchmark {
+    public interface NarrowRowRepository extends IRepository<NarrowRow> {
+        List<NarrowRow> findByName(String name);
+    }
+
+    private static final Integer ID = 1;
+    private static final Object[] QUERY_ARGS = {"row 1"};
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private IRepository<NarrowRow> repository;
+    private NarrowRowRepository proxy;
+    private QueryPlan findByName;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        database = new BenchmarkDatabase();
+        database.seedNarrowRows(10);
+        entityManager = database.createEntityManager();
+        repository = entityManager.createRepo(NarrowRow.class);
+        proxy = entityManager.createRepository(NarrowRowRepository.class, repository);
+        findByName = QueryPlan.compile(NarrowRowRepository.class.getMethod("findByName", String.class), NarrowRow.class);
+        repository.find(ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Class<NarrowRow> directEntityClass() {
+        return repository.getEntityClass();
+    }
+
+    @Benchmark
+    public Class<NarrowRow> proxiedEntityClass() {
+        return proxy.getEntityClass();
+    }
+
+    @Benchmark
+    public NarrowRow directFind() {
+        return repository.find(ID);
+    }
+
+    @Benchmark
+    public NarrowRow proxiedFind() {
+        return proxy.find(ID);
+    }
+
+    @Benchmark
+    public Object directQuery() {
+        return repository.execute(findByName, QUERY_ARGS);
+    }
+
+    @Benchmark
+    public List<NarrowRow> proxiedQuery() {
+        return proxy.findByName("row 1");
+    }
+}
@@ -0,0 +1,75 @@
+package org.group05.com.benchmarks;
+
+import org.group05.com.annotations.Column;
+import org.group05.com.annotations.Entity;
+import org.group05.com.annotations.Id;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * A 19-column entity of mixed types, for the per-column cost of mapping.
+ */
+@Entity(tableName = "wide_rows")
+public class WideRow {
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "grp")
+    private int group;
+
+    @Column(name = "text_1")
+    private String text1;
+
+    @Column(name = "text_2")
+    private String text2;
+
+    @Column(name = "text_3")
+    private String text3;
+
+    @Column(name = "text_4")
+    private String text4;
+
+    @Column(name = "text_5")
+    private String text5;
+
+    @Column(name = "int_1")
+    private Integer int1;
+
+    @Column(name = "int_2")
+    private Integer int2;
+
+    @Column(name = "int_3")
+    private Integer int3;
+
+    @Column(name = "int_4")
+    private Integer int4;
+
+    @Column(name = "long_1")
+    private Long long1;
+
+    @Column(name = "long_2")
+    private Long long2;
+
+    @Column(name = "double_1")
+    private Double double1;
+
+    @Column(name = "double_2")
+    private Double double2;
+
+    @Column(name = "amount")
+    private BigDecimal amount;
+
+    @Column(name = "date_1")
+    private Date date1;
+
+    @Column(name = "date_2")
+    private Date date2;
+
+    @Column(name = "active")
+    private Boolean active;
+
+    public WideRow() {
+    }
+}
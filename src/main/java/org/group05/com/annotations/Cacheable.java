@@ -0,0 +1,17 @@
+package org.group05.com.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps loaded rows of this entity in the process-wide second-level cache, shared by every
+ * {@code EntityManager}. Meant for read-mostly tables.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+    int maxSize() default 1000;
+    long ttlSeconds() default 300;
+}
@@ -0,0 +1,11 @@
+package org.group05.com.annotations;
+
+public enum FetchType {
+    EAGER,
+    LAZY,
+    /**
+     * Eager, and loaded by the same query through a {@code LEFT JOIN}. Only used for {@code @ManyToOne};
+     * a {@code @OneToMany} marked {@code JOIN} is fetched like {@code EAGER}.
+     */
+    JOIN
+}
@@ -8,5 +8,6 @@ import java.lang.annotation.Target;
 public @interface ManyToOne {
     String joinColumn() default "";
     String cascade() default "None";
+    FetchType fetch() default FetchType.EAGER;
 
 }
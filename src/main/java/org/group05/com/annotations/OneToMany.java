@@ -8,4 +8,5 @@ import java.lang.annotation.Target;
 public @interface OneToMany {
     String joinColumn() default "";
     String cascade() default "None";
+    FetchType fetch() default FetchType.EAGER;
 }
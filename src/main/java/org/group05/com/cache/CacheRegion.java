@@ -0,0 +1,108 @@
+package org.group05.com.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The cached rows of one entity class, keyed by primary key. A row is stored as its column values (the
+ * {@code @ManyToOne} join columns included), never as an entity instance, so every entity manager gets
+ * its own copy.
+ */
+public final class CacheRegion {
+    /**
+     * @param generation the invalidations counted when the row was read; a row from an earlier generation
+     *                   may have been stored after the invalidation meant to drop it, and is ignored
+     */
+    private record Entry(Object[] state, long expiresAt, long generation) {
+    }
+
+    private final String tableName;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long invalidatedAt = System.nanoTime();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    CacheRegion(String tableName, int maxSize, long ttlSeconds) {
+        this.tableName = tableName;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Object[] get(Object id) {
+        Entry entry = entries.get(id);
+        if (entry != null && (entry.expiresAt() - System.nanoTime() < 0 || entry.generation() != generation.get())) {
+            if (entries.remove(id, entry)) {
+                evictions.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.state();
+    }
+
+    /**
+     * Stores a row read by a query that started at {@code readStartedAt} ({@link System#nanoTime()}).
+     * Rows read before the last invalidation are dropped, since they may predate the write that caused it.
+     */
+    public void put(Object id, Object[] state, long readStartedAt) {
+        // Read before invalidatedAt, which invalidate() sets first
+        long current = generation.get();
+        if (readStartedAt - invalidatedAt <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(id)) {
+            evict();
+        }
+        entries.put(id, new Entry(state, System.nanoTime() + ttlNanos, current));
+        puts.increment();
+    }
+
+    /**
+     * Drops every row; called whenever the ORM writes to the table.
+     */
+    public void invalidate() {
+        invalidatedAt = System.nanoTime();
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.sum(), misses.sum(), puts.sum(), evictions.sum(), entries.size());
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().expiresAt() - now < 0 || entry.getValue().generation() != generation.get();
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        // Still full: drop about a tenth of the entries to make room for the next puts as well
+        Iterator<Object> iterator = entries.keySet().iterator();
+        for (int i = entries.size() - maxSize + Math.max(1, maxSize / 10); i > 0 && iterator.hasNext(); i--) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+}
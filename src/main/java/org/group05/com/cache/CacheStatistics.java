@@ -0,0 +1,8 @@
+package org.group05.com.cache;
+
+public record CacheStatistics(long hits, long misses, long puts, long evictions, int size) {
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,19 @@
+package org.group05.com.cache;
+
+import org.group05.com.metadata.EntityMetadata;
+
+/**
+ * Identity of a persistent entity: its class and primary key. The key is converted to the type of the
+ * {@code @Id} field, so a {@code Long} read from a join column and the {@code Integer} stored in the
+ * entity produce the same key.
+ */
+public record EntityKey(Class<?> entityClass, Object id) {
+    public static EntityKey of(EntityMetadata<?> metadata, Object id) {
+        return new EntityKey(metadata.getEntityClass(), EntityMetadata.convertKey(id, metadata.getIdColumn().getType()));
+    }
+
+    public static EntityKey of(Object entity) {
+        EntityMetadata<?> metadata = EntityMetadata.of(entity);
+        return of(metadata, metadata.getIdValue(entity));
+    }
+}
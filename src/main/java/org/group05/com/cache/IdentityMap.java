@@ -0,0 +1,89 @@
+package org.group05.com.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * First-level cache of an {@code EntityManager}: at most one instance per {@link EntityKey}, the least
+ * recently used evicted beyond {@code maxSize}, each with a snapshot of the row it was read from.
+ */
+public class IdentityMap {
+    private record Entry(Object entity, Object[] snapshot) {
+    }
+
+    private final int maxSize;
+    private final Map<EntityKey, Entry> entities;
+
+    public IdentityMap(int maxSize) {
+        this.maxSize = maxSize;
+        this.entities = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EntityKey, Entry> eldest) {
+                return size() > IdentityMap.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized Object get(EntityKey key) {
+        Entry entry = entities.get(key);
+        return entry == null ? null : entry.entity();
+    }
+
+    /**
+     * The snapshot of {@code entity}, or null when it has none or is not the instance tracked for {@code key}.
+     */
+    public synchronized Object[] getSnapshot(EntityKey key, Object entity) {
+        Entry entry = entities.get(key);
+        return entry == null || entry.entity() != entity ? null : entry.snapshot();
+    }
+
+    public synchronized boolean contains(EntityKey key) {
+        return entities.containsKey(key);
+    }
+
+    public synchronized void put(EntityKey key, Object entity) {
+        put(key, entity, null);
+    }
+
+    /**
+     * @param snapshot the entity's row as read or last written; it is kept as is and must not be modified
+     */
+    public synchronized void put(EntityKey key, Object entity, Object[] snapshot) {
+        entities.put(key, new Entry(entity, snapshot));
+    }
+
+    public synchronized void remove(EntityKey key) {
+        entities.remove(key);
+    }
+
+    /**
+     * Removes the entity from the map if this exact instance is the one being tracked.
+     */
+    public synchronized void detach(Object entity) {
+        EntityKey key = EntityKey.of(entity);
+        Entry entry = entities.get(key);
+        if (entry != null && entry.entity() == entity) {
+            entities.remove(key);
+        }
+    }
+
+    /**
+     * Removes the tracked entities of {@code entityClass} matching the filter.
+     */
+    public synchronized void removeIf(Class<?> entityClass, Predicate<Object> filter) {
+        entities.entrySet().removeIf(entry -> entry.getKey().entityClass() == entityClass && filter.test(entry.getValue().entity()));
+    }
+
+    public synchronized void clear() {
+        entities.clear();
+    }
+
+    public synchronized int size() {
+        return entities.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,64 @@
+package org.group05.com.cache;
+
+import org.group05.com.annotations.Cacheable;
+import org.group05.com.metadata.EntityMetadata;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of rows of {@link Cacheable} entities, shared by every {@code EntityManager}.
+ * Any insert, update or delete the ORM runs against a table invalidates that table's region.
+ */
+public final class SecondLevelCache {
+    private static final SecondLevelCache INSTANCE = new SecondLevelCache();
+
+    private final Map<Class<?>, CacheRegion> regions = new ConcurrentHashMap<>();
+
+    private SecondLevelCache() {
+    }
+
+    public static SecondLevelCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The region of a cacheable entity, or null when the entity is not annotated with {@link Cacheable}.
+     */
+    public CacheRegion region(EntityMetadata<?> metadata) {
+        Cacheable cacheable = metadata.getCacheable();
+        if (cacheable == null) {
+            return null;
+        }
+        CacheRegion region = regions.get(metadata.getEntityClass());
+        if (region == null) {
+            region = regions.computeIfAbsent(metadata.getEntityClass(),
+                    k -> new CacheRegion(metadata.getTableName(), cacheable.maxSize(), cacheable.ttlSeconds()));
+        }
+        return region;
+    }
+
+    public void invalidate(String tableName) {
+        for (CacheRegion region : regions.values()) {
+            if (region.getTableName().equalsIgnoreCase(tableName)) {
+                region.invalidate();
+            }
+        }
+    }
+
+    public void clear() {
+        regions.values().forEach(CacheRegion::invalidate);
+    }
+
+    public CacheStatistics getStatistics(Class<?> entityClass) {
+        CacheRegion region = regions.get(entityClass);
+        return region == null ? new CacheStatistics(0, 0, 0, 0, 0) : region.getStatistics();
+    }
+
+    public Map<Class<?>, CacheStatistics> getStatistics() {
+        Map<Class<?>, CacheStatistics> statistics = new HashMap<>();
+        regions.forEach((entityClass, region) -> statistics.put(entityClass, region.getStatistics()));
+        return statistics;
+    }
+}
@@ -0,0 +1,32 @@
+package org.group05.com.datasource;
+
+import java.sql.PreparedStatement;
+
+/**
+ * A statement checked out of a {@link StatementCache}. Closing it returns the statement to the cache
+ * instead of closing it, so it is meant to be used in a try-with-resources block like the statement itself.
+ */
+public final class CachedStatement implements AutoCloseable {
+    private final StatementCache cache;
+    private final String key;
+    private final PreparedStatement statement;
+    private boolean closed;
+
+    CachedStatement(StatementCache cache, String key, PreparedStatement statement) {
+        this.cache = cache;
+        this.key = key;
+        this.statement = statement;
+    }
+
+    public PreparedStatement getStatement() {
+        return statement;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            cache.release(key, statement);
+        }
+    }
+}
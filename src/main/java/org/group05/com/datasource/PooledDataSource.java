@@ -0,0 +1,370 @@
+package org.group05.com.datasource;
+
+import org.group05.com.ConfigurationManager;
+import org.group05.com.logging.LogLevel;
+import org.group05.com.logging.SqlLogger;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * A small JDBC connection pool configured by the {@code database.pool.*} properties. The connections handed
+ * out are proxies whose {@code close()} returns the physical connection to the pool.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long connectionTimeout;
+    private final long idleTimeout;
+    private final long validationInterval;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThreshold;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PoolEntry> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PoolEntry> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public PooledDataSource(String url, String username, String password) {
+        this(url, username, password, "database.pool.");
+    }
+
+    /**
+     * @param prefix property prefix the pool settings are read from, e.g. {@code database.pool.}
+     */
+    public PooledDataSource(String url, String username, String password, String prefix) {
+        ConfigurationManager configuration = ConfigurationManager.getInstance();
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, configuration.getIntProperty(prefix + "maxSize", 10));
+        this.minSize = Math.min(maxSize, Math.max(0, configuration.getIntProperty(prefix + "minSize", 2)));
+        this.connectionTimeout = configuration.getLongProperty(prefix + "connectionTimeout", 30_000);
+        this.idleTimeout = configuration.getLongProperty(prefix + "idleTimeout", 600_000);
+        this.validationInterval = configuration.getLongProperty(prefix + "validationInterval", 500);
+        this.validationTimeoutSeconds = configuration.getIntProperty(prefix + "validationTimeout", 5);
+        this.leakDetectionThreshold = configuration.getLongProperty(prefix + "leakDetectionThreshold", 0);
+        long housekeepingPeriod = configuration.getLongProperty(prefix + "housekeepingPeriod", 30_000);
+
+        this.permits = new Semaphore(maxSize);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "orm-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fillToMinimum();
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, housekeepingPeriod, housekeepingPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        acquirePermit();
+        try {
+            PoolEntry entry;
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    break;
+                }
+                discard(entry);
+            }
+            if (entry == null) {
+                entry = createEntry();
+            }
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowTrace = leakDetectionThreshold > 0 ? new Throwable("Connection borrowed here") : null;
+            entry.leakReported = false;
+            borrowed.add(entry);
+            return entry.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections always use the configured credentials");
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Number of connections currently lent out.
+     */
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        // Wakes a waiter, which hands the permit on to the next one before failing
+        permits.release();
+        PoolEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire() && !permits.tryAcquire(connectionTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + connectionTimeout
+                        + "ms waiting for a connection (" + borrowed.size() + " of " + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        if (closed) {
+            permits.release();
+            throw new SQLException("Connection pool is closed");
+        }
+    }
+
+    private boolean isUsable(PoolEntry entry) {
+        if (System.currentTimeMillis() - entry.lastUsed < validationInterval) {
+            return true;
+        }
+        try {
+            return entry.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PoolEntry createEntry() throws SQLException {
+        total.incrementAndGet();
+        try {
+            return new PoolEntry(DriverManager.getConnection(url, username, password));
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(PoolEntry entry) {
+        borrowed.remove(entry);
+        try {
+            if (entry.broken || closed) {
+                discard(entry);
+                return;
+            }
+            if (!entry.connection.getAutoCommit()) {
+                // Never hand out a connection with a transaction left open
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            idle.addFirst(entry);
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PoolEntry entry) {
+        total.decrementAndGet();
+        try {
+            entry.connection.close();
+        } catch (SQLException ignored) {
+            // The connection is being thrown away anyway
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && total.get() < minSize) {
+            try {
+                PoolEntry entry = createEntry();
+                entry.lastUsed = System.currentTimeMillis();
+                idle.addLast(entry);
+            } catch (SQLException e) {
+                SqlLogger.getDefault().log(LogLevel.ERROR, () -> "Could not open pooled connection to " + url + ": " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+        for (PoolEntry entry : idle) {
+            if (total.get() <= minSize) {
+                break;
+            }
+            if (now - entry.lastUsed > idleTimeout && idle.remove(entry)) {
+                discard(entry);
+            }
+        }
+        fillToMinimum();
+
+        if (leakDetectionThreshold > 0) {
+            for (PoolEntry entry : borrowed) {
+                if (!entry.leakReported && now - entry.borrowedAt > leakDetectionThreshold) {
+                    entry.leakReported = true;
+                    long held = now - entry.borrowedAt;
+                    Throwable trace = entry.borrowTrace;
+                    SqlLogger.getDefault().log(LogLevel.WARN, () -> "Connection leak detection triggered: connection held for "
+                            + held + "ms" + (trace == null ? "" : "\n" + stackTrace(trace)));
+                }
+            }
+        }
+    }
+
+    private static String stackTrace(Throwable throwable) {
+        StringWriter writer = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(writer));
+        return writer.toString().stripTrailing();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private final class PoolEntry {
+        private final Connection connection;
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+        private volatile boolean broken;
+
+        private PoolEntry(Connection connection) {
+            this.connection = connection;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConnectionHandle(this)
+            );
+        }
+    }
+
+    /**
+     * What callers hold while a connection is borrowed. Each borrow gets its own handle, so a stale
+     * reference cannot return the same physical connection twice.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PoolEntry entry;
+        private volatile boolean closed;
+
+        private ConnectionHandle(PoolEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        release(entry);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || entry.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + entry.connection;
+                }
+                default -> {
+                }
+            }
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException
+                        && sqlException.getSQLState() != null && sqlException.getSQLState().startsWith("08")) {
+                    entry.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.group05.com.datasource;
+
+import org.group05.com.ConfigurationManager;
+import org.group05.com.logging.LogLevel;
+import org.group05.com.logging.SqlLogger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands out connections to the read replicas configured by {@code database.replica.*}, skipping for
+ * {@code retryInterval} a replica that cannot be reached; null when none can, so the primary is used.
+ */
+public class ReplicaRouter implements AutoCloseable {
+    public enum Balancing {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    private final List<PooledDataSource> replicas;
+    private final Balancing balancing;
+    private final long readYourWritesWindowNanos;
+    private final long retryIntervalNanos;
+    /** Per replica, the {@link System#nanoTime()} until which it is not tried, or 0 when it is up */
+    private final AtomicLongArray downUntil;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param readYourWritesWindowMillis how long after writing an entity manager keeps reading from the
+     *                                   primary, so it sees its own writes despite replication lag; 0 disables it
+     */
+    public ReplicaRouter(List<PooledDataSource> replicas, Balancing balancing, long readYourWritesWindowMillis) {
+        this(replicas, balancing, readYourWritesWindowMillis, 30_000);
+    }
+
+    /**
+     * @param retryIntervalMillis how long a replica that could not be reached is skipped
+     */
+    public ReplicaRouter(List<PooledDataSource> replicas, Balancing balancing, long readYourWritesWindowMillis,
+                         long retryIntervalMillis) {
+        this.replicas = List.copyOf(replicas);
+        this.balancing = balancing;
+        this.readYourWritesWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, readYourWritesWindowMillis));
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, retryIntervalMillis));
+        this.downUntil = new AtomicLongArray(this.replicas.size());
+    }
+
+    /**
+     * The replicas configured in {@code application.properties}, or null when there are none.
+     */
+    public static ReplicaRouter fromConfiguration() {
+        ConfigurationManager configuration = ConfigurationManager.getInstance();
+        String urls = configuration.getProperty("database.replica.urls", "").trim();
+        if (urls.isEmpty()) {
+            return null;
+        }
+        String username = configuration.getProperty("database.replica.username", configuration.getProperty("database.username"));
+        String password = configuration.getProperty("database.replica.password", configuration.getProperty("database.password"));
+        List<PooledDataSource> replicas = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                replicas.add(new PooledDataSource(url.trim(), username, password, "database.replica.pool."));
+            }
+        }
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        Balancing balancing = Balancing.valueOf(configuration.getProperty("database.replica.balancing", "ROUND_ROBIN").trim().toUpperCase());
+        return new ReplicaRouter(replicas, balancing, configuration.getLongProperty("database.replica.readYourWritesWindow", 0),
+                configuration.getLongProperty("database.replica.retryInterval", 30_000));
+    }
+
+    /**
+     * A connection to a replica, to be closed by the caller, or null when no replica can be reached.
+     */
+    public Connection getConnection() {
+        for (int index : candidates()) {
+            long until = downUntil.get(index);
+            if (until != 0 && System.nanoTime() - until < 0) {
+                continue;
+            }
+            PooledDataSource replica = replicas.get(index);
+            try {
+                Connection connection = replica.getConnection();
+                downUntil.compareAndSet(index, until, 0);
+                return connection;
+            } catch (SQLException e) {
+                // Never 0, which marks a replica as up
+                downUntil.set(index, (System.nanoTime() + retryIntervalNanos) | 1);
+                SqlLogger.getDefault().log(LogLevel.WARN, () -> "Replica " + replica.getUrl() + " unavailable, skipped for "
+                        + TimeUnit.NANOSECONDS.toMillis(retryIntervalNanos) + " ms: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether {@code replica} is skipped after failing to connect.
+     */
+    public boolean isDown(PooledDataSource replica) {
+        int index = replicas.indexOf(replica);
+        long until = index < 0 ? 0 : downUntil.get(index);
+        return until != 0 && System.nanoTime() - until < 0;
+    }
+
+    public List<PooledDataSource> getReplicas() {
+        return replicas;
+    }
+
+    public Balancing getBalancing() {
+        return balancing;
+    }
+
+    public long getReadYourWritesWindowNanos() {
+        return readYourWritesWindowNanos;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(PooledDataSource::close);
+    }
+
+    /**
+     * Every replica, in the order to try them: starting from the next in turn, or by load with ties broken
+     * by turn so that idle replicas share the work.
+     */
+    private List<Integer> candidates() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Integer[] ordered = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ordered[i] = (start + i) % size;
+        }
+        if (balancing == Balancing.LEAST_LOADED) {
+            // Stable, so replicas equally loaded keep their round-robin order
+            Arrays.sort(ordered, Comparator.comparingInt(index -> replicas.get(index).getActiveConnections()));
+        }
+        return Arrays.asList(ordered);
+    }
+}
@@ -0,0 +1,125 @@
+package org.group05.com.datasource;
+
+import org.group05.com.metrics.OrmMetrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prepared statements of one connection, checked out by {@link #prepare} and returned by
+ * {@link CachedStatement#close()}. At most {@code maxSize} idle statements are kept; 0 disables caching.
+ */
+public class StatementCache implements AutoCloseable {
+    @FunctionalInterface
+    public interface StatementFactory {
+        PreparedStatement create(Connection connection) throws SQLException;
+    }
+
+    private final Connection connection;
+    private final int maxSize;
+    private final OrmMetrics metrics;
+    private final LinkedHashMap<String, PreparedStatement> idle;
+    private boolean closed;
+    private long hits;
+    private long misses;
+
+    public StatementCache(Connection connection, int maxSize) {
+        this(connection, maxSize, null);
+    }
+
+    /**
+     * @param metrics counts the statements prepared and reused; may be null
+     */
+    public StatementCache(Connection connection, int maxSize, OrmMetrics metrics) {
+        this.connection = connection;
+        this.maxSize = Math.max(0, maxSize);
+        this.metrics = metrics;
+        this.idle = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CachedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, connection -> connection.prepareStatement(sql));
+    }
+
+    /**
+     * @param key     identifies the statement; the SQL, plus anything else the factory varies on
+     * @param factory prepares the statement when no idle one is cached under {@code key}
+     */
+    public synchronized CachedStatement prepare(String key, StatementFactory factory) throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement cache is closed");
+        }
+        PreparedStatement statement = idle.remove(key);
+        if (statement != null && !statement.isClosed()) {
+            hits++;
+            if (metrics != null) {
+                metrics.statementCacheHit();
+            }
+            return new CachedStatement(this, key, statement);
+        }
+        misses++;
+        if (metrics != null) {
+            metrics.statementPrepared();
+        }
+        return new CachedStatement(this, key, factory.create(connection));
+    }
+
+    synchronized void release(String key, PreparedStatement statement) {
+        try {
+            if (closed || maxSize == 0 || statement.isClosed()) {
+                closeQuietly(statement);
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            PreparedStatement previous = idle.put(key, statement);
+            if (previous != null && previous != statement) {
+                closeQuietly(previous);
+            }
+        } catch (SQLException e) {
+            closeQuietly(statement);
+        }
+    }
+
+    public synchronized int size() {
+        return idle.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Closes every idle statement; statements still checked out are closed when they are returned.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        idle.values().forEach(StatementCache::closeQuietly);
+        idle.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // The statement is being thrown away anyway
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.group05.com.entityManager;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The rows of a bulk load as the tab-separated text read by {@code COPY} and {@code LOAD DATA}, encoded a
+ * chunk at a time as the driver reads.
+ */
+final class BulkLoadInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Iterator<Object[]> rows;
+    private final Function<Object, String> format;
+    private final StringBuilder text = new StringBuilder(CHUNK_SIZE + 256);
+    private byte[] chunk = new byte[0];
+    private int position;
+    private long rowCount;
+
+    /**
+     * @param format the text of a non-null value, before escaping
+     */
+    BulkLoadInputStream(Iterator<Object[]> rows, Function<Object, String> format) {
+        this.rows = rows;
+        this.format = format;
+    }
+
+    /**
+     * The number of rows encoded so far.
+     */
+    long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int read() {
+        return fill() ? chunk[position++] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        if (length == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < length && fill()) {
+            int count = Math.min(length - read, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset + read, count);
+            position += count;
+            read += count;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    /**
+     * Encodes the next rows once the current chunk has been read; false when there are none left.
+     */
+    private boolean fill() {
+        if (position < chunk.length) {
+            return true;
+        }
+        if (!rows.hasNext()) {
+            return false;
+        }
+        text.setLength(0);
+        while (text.length() < CHUNK_SIZE && rows.hasNext()) {
+            Object[] row = rows.next();
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    text.append('\t');
+                }
+                if (row[i] == null) {
+                    text.append("\\N");
+                } else {
+                    escape(format.apply(row[i]));
+                }
+            }
+            text.append('\n');
+            rowCount++;
+        }
+        chunk = text.toString().getBytes(StandardCharsets.UTF_8);
+        position = 0;
+        return true;
+    }
+
+    private void escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> text.append("\\\\");
+                case '\t' -> text.append("\\t");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                default -> text.append(c);
+            }
+        }
+    }
+}
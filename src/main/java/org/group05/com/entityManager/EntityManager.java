@@ -1,35 +1,421 @@
 package org.group05.com.entityManager;
 
+import org.group05.com.ConfigurationManager;
+import org.group05.com.cache.IdentityMap;
+import org.group05.com.datasource.CachedStatement;
+import org.group05.com.datasource.ReplicaRouter;
+import org.group05.com.datasource.StatementCache;
+import org.group05.com.logging.SqlLogger;
+import org.group05.com.metrics.OrmMetrics;
+import org.group05.com.repository.AsyncRepository;
 import org.group05.com.repository.IRepository;
 import org.group05.com.repository.RepositoryImpl;
 import org.group05.com.repository.RepositoryProxyHandler;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+public abstract class EntityManager implements AutoCloseable {
+    private static final Pattern READ_ONLY = Pattern.compile("^\\s*\\(?\\s*(SELECT|WITH)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WRITE_OR_LOCK = Pattern.compile("\\b(INSERT|UPDATE|DELETE|MERGE)\\b"
+            + "|\\bFOR\\s+(KEY\\s+)?SHARE\\b|\\bLOCK\\s+IN\\s+SHARE\\s+MODE\\b", Pattern.CASE_INSENSITIVE);
 
-public abstract class EntityManager{
     protected final Connection connection;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+    private final int fetchBatchSize;
+    private final int streamFetchSize;
+    private final IdentityMap identityMap;
+    private final StatementCache statementCache;
+    private final UnitOfWork unitOfWork;
+    private final SqlLogger sqlLogger;
+    private final OrmMetrics metrics;
+    private final ReplicaRouter replicaRouter;
+    private Connection replicaConnection;
+    private StatementCache replicaStatementCache;
+    private boolean replicaUnavailable;
+    private long lastWrite;
+    private boolean written;
+    private RepositoryImpl<Object> writer;
 
     public EntityManager(Connection connection) {
+        this(connection, null);
+    }
+
+    /**
+     * @param entityManagerFactory the factory this entity manager was created by, used to run the
+     *                             asynchronous {@code @Query} methods of its repository proxies and to
+     *                             read from its replicas
+     */
+    public EntityManager(Connection connection, EntityManagerFactory entityManagerFactory) {
         this.connection = connection;
+        this.entityManagerFactory = entityManagerFactory;
+        ConfigurationManager configuration = ConfigurationManager.getInstance();
+        this.batchSize = Math.max(1, configuration.getIntProperty("database.batch.size", 500));
+        this.fetchBatchSize = Math.max(1, configuration.getIntProperty("database.fetch.batchSize", 100));
+        this.streamFetchSize = Math.max(1, configuration.getIntProperty("database.stream.fetchSize", 1000));
+        this.identityMap = new IdentityMap(Math.max(1, configuration.getIntProperty("database.identityMap.maxSize", 10_000)));
+        this.metrics = OrmMetrics.getDefault();
+        this.statementCache = new StatementCache(connection, configuration.getIntProperty("database.statementCache.size", 64), metrics);
+        this.unitOfWork = new UnitOfWork(connection);
+        this.sqlLogger = SqlLogger.getDefault();
+        this.replicaRouter = entityManagerFactory == null ? null : entityManagerFactory.getReplicaRouter();
     }
+
+    /**
+     * Rolls back an unfinished transaction, closes the cached statements and returns the connections to
+     * the pools they were borrowed from.
+     */
+    @Override
     public void close() {
+        if (unitOfWork.isActive()) {
+            rollback();
+        }
+        statementCache.close();
         try {
+            if (replicaConnection != null) {
+                replicaStatementCache.close();
+                replicaConnection.close();
+                replicaConnection = null;
+            }
             connection.close();
         } catch (SQLException e) {
             throw new RuntimeException("Error while closing the connection", e);
         }
     }
-    public IRepository<?> createRepo(Class<?> clazz) {
-        return new RepositoryImpl<>(connection, clazz);
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * The factory that created this entity manager, or null when it was created on a bare connection.
+     */
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    /**
+     * Entities loaded by the repositories of this entity manager, shared between them.
+     */
+    public IdentityMap getIdentityMap() {
+        return identityMap;
+    }
+
+    // Transactions
+
+    /**
+     * Starts a unit of work: from now on inserts, updates and deletes are queued and written in batches
+     * when flushed, all in one transaction. See {@link UnitOfWork}.
+     */
+    public void begin() {
+        unitOfWork.begin();
+    }
+
+    /**
+     * Writes the queued changes without committing them. Queries flush on their own, so this is only
+     * needed to get generated keys or to see constraint violations early.
+     */
+    public void flush() {
+        unitOfWork.flush(writer());
+    }
+
+    /**
+     * Flushes and commits. If that fails, the transaction is rolled back as by {@link #rollback()} before
+     * the error is thrown.
+     */
+    public void commit() {
+        try {
+            unitOfWork.commit(writer());
+        } catch (RuntimeException e) {
+            try {
+                rollback();
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Discards the queued changes and rolls back the flushed ones. Every loaded entity is forgotten, since
+     * their snapshots may describe rows that no longer exist; keys generated by the rolled back inserts
+     * stay set on the entities.
+     */
+    public void rollback() {
+        try {
+            unitOfWork.rollback();
+        } finally {
+            identityMap.clear();
+        }
+    }
+
+    public boolean isTransactionActive() {
+        return unitOfWork.isActive();
+    }
+
+    public UnitOfWork getUnitOfWork() {
+        return unitOfWork;
+    }
+
+    /**
+     * Where the repositories of this entity manager log their statements ({@code logging.sql.*}).
+     */
+    public SqlLogger getSqlLogger() {
+        return sqlLogger;
+    }
+
+    /**
+     * Where the repositories of this entity manager record their statements and identity map lookups.
+     */
+    public OrmMetrics getMetrics() {
+        return metrics;
+    }
+
+    private RepositoryImpl<Object> writer() {
+        if (writer == null) {
+            writer = new RepositoryImpl<>(this, Object.class);
+        }
+        return writer;
+    }
+
+    /**
+     * Forgets every loaded entity; the next lookup reads from the database again.
+     */
+    public void clear() {
+        identityMap.clear();
+    }
+
+    /**
+     * Stops tracking one entity. The instance stays usable but later lookups return a fresh copy.
+     */
+    public void detach(Object entity) {
+        identityMap.detach(entity);
+    }
+
+    /**
+     * The cached prepared statements of this entity manager's connection ({@code database.statementCache.size}).
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * A prepared statement for {@code sql} from the statement cache; close it to give it back.
+     */
+    public CachedStatement prepareStatement(String sql) throws SQLException {
+        return statementCache.prepare(sql);
+    }
+
+    /**
+     * A prepared statement for a query that may run on a read replica: see {@link #readsFromReplica}. Without
+     * replicas, or when none can be reached, it is prepared on the primary like {@link #prepareStatement(String)}.
+     */
+    public CachedStatement prepareReadStatement(String sql) throws SQLException {
+        if (readsFromReplica(sql)) {
+            if (replicaConnection == null) {
+                replicaConnection = replicaRouter.getConnection();
+                if (replicaConnection == null) {
+                    // Not asked again: this entity manager reads from the primary from now on
+                    replicaUnavailable = true;
+                    return statementCache.prepare(sql);
+                }
+                replicaStatementCache = new StatementCache(replicaConnection,
+                        ConfigurationManager.getInstance().getIntProperty("database.statementCache.size", 64), metrics);
+            }
+            return replicaStatementCache.prepare(sql);
+        }
+        return statementCache.prepare(sql);
+    }
+
+    /**
+     * Whether {@link #prepareReadStatement} sends {@code sql} to a replica: a plain {@code SELECT} outside a
+     * transaction, outside the read-your-writes window, while a replica was reachable when first needed.
+     */
+    public boolean readsFromReplica(String sql) {
+        if (replicaRouter == null || replicaUnavailable || unitOfWork.isActive()) {
+            return false;
+        }
+        if (written && System.nanoTime() - lastWrite < replicaRouter.getReadYourWritesWindowNanos()) {
+            return false;
+        }
+        return READ_ONLY.matcher(sql).find() && !WRITE_OR_LOCK.matcher(sql).find();
+    }
+
+    /**
+     * Records a write through this entity manager, which starts its read-your-writes window.
+     */
+    public void written() {
+        lastWrite = System.nanoTime();
+        written = true;
+    }
+
+    /**
+     * Like {@link #prepareStatement(String)}, for an insert prepared with {@link #prepareInsert}.
+     */
+    public CachedStatement prepareInsertStatement(String sql, String idColumn) throws SQLException {
+        return statementCache.prepare(idColumn + "#" + sql, connection -> prepareInsert(connection, sql, idColumn));
+    }
+
+    public <U> IRepository<U> createRepo(Class<U> clazz) {
+        return new RepositoryImpl<>(this, clazz);
     }
 
+    /**
+     * A proxy of {@code repositoryInterface} running its {@code @Query} methods on {@code repository}.
+     * Methods returning {@code CompletableFuture} run on the factory's executor, which requires an
+     * entity manager created by an {@link EntityManagerFactory}.
+     */
     @SuppressWarnings("unchecked")
     public <T> T createRepository(Class<T> repositoryInterface, IRepository<?> repository) {
+        // Only repositories with asynchronous query methods start the executor, on their first call
+        Supplier<AsyncRepository<?>> asyncRepository = () -> entityManagerFactory == null ? null
+                : createAsyncRepo(repository);
         return (T) Proxy.newProxyInstance(
                 repositoryInterface.getClassLoader(),
                 new Class<?>[]{repositoryInterface},
-                new RepositoryProxyHandler<>(repository)
+                new RepositoryProxyHandler<>(repositoryInterface, repository, asyncRepository)
         );
     }
+
+    // Asynchronous calls get their own entity manager, behind the same decorators as repository
+    private <U> AsyncRepository<U> createAsyncRepo(IRepository<U> repository) {
+        return entityManagerFactory.createAsyncRepo(repository.getEntityClass(), repository::decorate);
+    }
+
+    // SQL dialect
+
+    /**
+     * Maximum number of rows written by one batched statement ({@code database.batch.size}).
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Maximum number of keys in one {@code IN (...)} list when associations are fetched ({@code database.fetch.batchSize}).
+     */
+    public int getFetchBatchSize() {
+        return Math.min(fetchBatchSize, getMaxBindParameters());
+    }
+
+    /**
+     * Rows fetched from the server per round trip by a streaming query ({@code database.stream.fetchSize}).
+     */
+    public int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    /**
+     * Maximum number of bind parameters the driver accepts in one statement.
+     */
+    public abstract int getMaxBindParameters();
+
+    /**
+     * {@code INSERT INTO table (columns) VALUES (...), (...)} with {@code rows} parameter groups.
+     */
+    public String buildInsertSql(String tableName, List<String> columns, int rows) {
+        StringBuilder query = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+        query.append(String.join(", ", columns)).append(") VALUES ");
+
+        StringBuilder group = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            group.append(i == 0 ? "?" : ", ?");
+        }
+        group.append(")");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                query.append(", ");
+            }
+            query.append(group);
+        }
+        return query.toString();
+    }
+
+    /**
+     * Like {@link #buildInsertSql}, but a row whose primary key {@code idColumn} already exists is updated
+     * with the values given for its other columns instead. {@code columns} include {@code idColumn}.
+     */
+    public abstract String buildUpsertSql(String tableName, List<String> columns, String idColumn, int rows);
+
+    /**
+     * The statement loading {@code columns} of {@code tableName} from the stream of rows sent by {@link #bulkLoad}.
+     */
+    public abstract String buildBulkLoadSql(String tableName, List<String> columns);
+
+    /**
+     * Runs {@code sql} from {@link #buildBulkLoadSql} with the database's native bulk-load protocol,
+     * encoding {@code rows} one chunk at a time while the driver sends them.
+     *
+     * @return the number of rows loaded
+     */
+    public abstract long bulkLoad(String sql, Iterator<Object[]> rows) throws SQLException;
+
+    /**
+     * The text of a non-null value in a bulk load. Booleans are written as 1 and 0, which both databases
+     * read into their boolean and integer types, and dates in JDBC escape format.
+     */
+    protected String bulkLoadValue(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool ? "1" : "0";
+        }
+        if (value instanceof java.util.Date date && !(value instanceof java.sql.Date || value instanceof Time
+                || value instanceof Timestamp)) {
+            return new Timestamp(date.getTime()).toString();
+        }
+        if (value instanceof byte[]) {
+            throw new IllegalArgumentException("Binary values cannot be bulk loaded");
+        }
+        return value.toString();
+    }
+
+    /**
+     * Prepares an insert so that {@code getGeneratedKeys()} returns the key of every inserted row, in order.
+     */
+    public abstract PreparedStatement prepareInsert(Connection connection, String sql, String idColumn) throws SQLException;
+
+    /**
+     * Limits a query to the rows of one page. The placeholders it adds are bound with the number of rows,
+     * then, when {@code offset} is true, the number of rows to skip. MySQL and PostgreSQL both accept
+     * {@code LIMIT ? OFFSET ?}.
+     */
+    public String limitSql(String sql, boolean offset) {
+        return sql + (offset ? " LIMIT ? OFFSET ?" : " LIMIT ?");
+    }
+
+    /**
+     * The condition selecting the rows after a position in ({@code column}, {@code idColumn}) order, bound with
+     * {@link #seekParameters}.
+     */
+    public String seekPredicate(String column, String idColumn, boolean descending) {
+        String operator = descending ? " < ?" : " > ?";
+        return "(" + column + operator + " OR " + column + " = ? AND " + idColumn + operator + ")";
+    }
+
+    /**
+     * The parameters of {@link #seekPredicate} for the position (value, id).
+     */
+    public Object[] seekParameters(Object value, Object id) {
+        return new Object[]{value, value, id};
+    }
+
+    /**
+     * Prepares a forward-only, read-only query whose rows the driver fetches while they are read instead
+     * of all at once. The statement must be given back to {@link #closeStreaming} rather than closed.
+     */
+    public abstract PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException;
+
+    /**
+     * Closes a statement opened by {@link #prepareStreaming} and undoes whatever the dialect set up for it.
+     */
+    public void closeStreaming(PreparedStatement statement) throws SQLException {
+        statement.close();
+    }
 }
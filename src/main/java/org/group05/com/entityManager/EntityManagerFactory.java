@@ -1,41 +1,121 @@
 package org.group05.com.entityManager;
 
 import org.group05.com.ConfigurationManager;
+import org.group05.com.datasource.PooledDataSource;
+import org.group05.com.datasource.ReplicaRouter;
+import org.group05.com.repository.AsyncRepository;
+import org.group05.com.repository.AsyncRepositoryImpl;
+import org.group05.com.repository.IRepository;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.function.UnaryOperator;
 
-public class EntityManagerFactory {
-    private Connection connection = null;
+public class EntityManagerFactory implements AutoCloseable {
+    private PooledDataSource dataSource = null;
+    private ReplicaRouter replicaRouter = null;
+    private boolean replicasConfigured = false;
+    private VirtualThreadExecutor asyncExecutor = null;
 
-    private Connection getConnection() throws SQLException {
-        if (connection == null) {
+    private synchronized PooledDataSource getDataSource() {
+        if (dataSource == null) {
             ConfigurationManager configuration = ConfigurationManager.getInstance();
             String url = configuration.getProperty("database.url");
             String username = configuration.getProperty("database.username");
             String password = configuration.getProperty("database.password");
 
-            connection = DriverManager.getConnection(url, username, password);
+            dataSource = new PooledDataSource(url, username, password);
             System.out.println("Connected to database successfully!");
         }
-        return connection;
+        return dataSource;
     }
 
-    public EntityManager createEntityManager() {
-        try {
-            String url = ConfigurationManager.getInstance().getProperty("database.url");
-            String typeDatabase = url.split(":")[1];
+    /**
+     * The read replicas of {@code database.replica.urls}, or null when there are none. Queries of the
+     * entity managers of this factory run on them as described in {@link EntityManager#readsFromReplica}.
+     */
+    public synchronized ReplicaRouter getReplicaRouter() {
+        if (!replicasConfigured) {
+            replicaRouter = ReplicaRouter.fromConfiguration();
+            replicasConfigured = true;
+        }
+        return replicaRouter;
+    }
 
-            return switch (typeDatabase) {
-                case "mysql" -> new MySQLEntityManager(getConnection());
-                case "postgresql" -> new PostgresSQLEntityManager(getConnection());
-                default -> throw new IllegalArgumentException("Database not supported");
-            };
+    /**
+     * A connection of the pool, outside any entity manager.
+     */
+    Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
 
+    /**
+     * Each entity manager borrows its own connection from the pool and returns it on {@link EntityManager#close()}.
+     */
+    public EntityManager createEntityManager() {
+        try {
+            return openEntityManager();
         } catch (SQLException e) {
             e.printStackTrace();
             return null;
         }
     }
+
+    /**
+     * Like {@link #createEntityManager()}, but throws when no connection can be obtained instead of returning null.
+     */
+    public EntityManager openEntityManager() throws SQLException {
+        String url = ConfigurationManager.getInstance().getProperty("database.url");
+        String typeDatabase = url.split(":")[1];
+
+        return switch (typeDatabase) {
+            case "mysql" -> new MySQLEntityManager(getConnection(), this);
+            case "postgresql" -> new PostgresSQLEntityManager(getConnection(), this);
+            default -> throw new IllegalArgumentException("Database not supported");
+        };
+    }
+
+    /**
+     * An asynchronous repository of {@code entityClass}; every call runs with its own entity manager.
+     */
+    public <U> AsyncRepository<U> createAsyncRepo(Class<U> entityClass) {
+        return createAsyncRepo(entityClass, UnaryOperator.identity());
+    }
+
+    /**
+     * An asynchronous repository of {@code entityClass} whose calls run on {@code decorator} applied
+     * to the repository of their entity manager.
+     */
+    public <U> AsyncRepository<U> createAsyncRepo(Class<U> entityClass, UnaryOperator<IRepository<U>> decorator) {
+        return new AsyncRepositoryImpl<>(this, entityClass, getAsyncExecutor(), decorator);
+    }
+
+    /**
+     * The virtual-thread executor of the asynchronous repositories. It runs at most
+     * {@code database.async.maxConcurrency} tasks at once, by default the maximum pool size.
+     */
+    public synchronized VirtualThreadExecutor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            int maxConcurrency = ConfigurationManager.getInstance().getIntProperty("database.async.maxConcurrency", 0);
+            asyncExecutor = new VirtualThreadExecutor(maxConcurrency > 0 ? maxConcurrency : getDataSource().getMaxSize());
+        }
+        return asyncExecutor;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (asyncExecutor != null) {
+            asyncExecutor.close();
+            asyncExecutor = null;
+        }
+        if (replicaRouter != null) {
+            replicaRouter.close();
+            replicaRouter = null;
+        }
+        replicasConfigured = false;
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
 }
@@ -1,11 +1,103 @@
 package org.group05.com.entityManager;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.group05.com.logging.LogLevel;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+import java.util.StringJoiner;
 
 public class MySQLEntityManager extends EntityManager {
+    private static final int MAX_LOGGED_WARNINGS = 5;
+
     public MySQLEntityManager(Connection connection) {
         super(connection);
     }
 
-}
+    public MySQLEntityManager(Connection connection, EntityManagerFactory entityManagerFactory) {
+        super(connection, entityManagerFactory);
+    }
+
+    @Override
+    public int getMaxBindParameters() {
+        return 65535;
+    }
+
+    /**
+     * {@code INSERT ... ON DUPLICATE KEY UPDATE column = VALUES(column), ...}. With only the key to write,
+     * {@code id = id} leaves an existing row as it is. {@code VALUES(column)} rather than the row alias of
+     * MySQL 8.0.19 keeps the statement valid on older servers and MariaDB.
+     */
+    @Override
+    public String buildUpsertSql(String tableName, List<String> columns, String idColumn, int rows) {
+        StringJoiner assignments = new StringJoiner(", ").setEmptyValue(idColumn + " = " + idColumn);
+        for (String column : columns) {
+            if (!column.equalsIgnoreCase(idColumn)) {
+                assignments.add(column + " = VALUES(" + column + ")");
+            }
+        }
+        return buildInsertSql(tableName, columns, rows) + " ON DUPLICATE KEY UPDATE " + assignments;
+    }
+
+    /**
+     * {@code LOAD DATA LOCAL INFILE} in the default tab-separated format. LOCAL turns errors such as
+     * duplicate keys into warnings, so the rows concerned are skipped rather than failing the load.
+     */
+    @Override
+    public String buildBulkLoadSql(String tableName, List<String> columns) {
+        return "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + tableName + " CHARACTER SET utf8mb4"
+                + " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+                + " (" + String.join(", ", columns) + ")";
+    }
+
+    /**
+     * Connector/J reads the rows from the input stream set on the statement in place of the named file.
+     * The connection needs {@code allowLoadLocalInfile=true} in {@code database.url}. Rows the server
+     * skipped are logged at {@code WARN} with its first warnings.
+     */
+    @Override
+    public long bulkLoad(String sql, Iterator<Object[]> rows) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            BulkLoadInputStream input = new BulkLoadInputStream(rows, this::bulkLoadValue);
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(input);
+            long loaded = statement.executeLargeUpdate(sql);
+            long skipped = input.getRowCount() - loaded;
+            SQLWarning warning = statement.getWarnings();
+            if (skipped > 0 || warning != null) {
+                StringJoiner warnings = new StringJoiner("; ");
+                for (int i = 0; warning != null && i < MAX_LOGGED_WARNINGS; warning = warning.getNextWarning(), i++) {
+                    warnings.add(warning.getMessage());
+                }
+                getSqlLogger().log(LogLevel.WARN, () -> "LOAD DATA skipped " + Math.max(0, skipped) + " of "
+                        + input.getRowCount() + " rows: " + warnings);
+            }
+            return loaded;
+        }
+    }
 
+    /**
+     * Connector/J returns one generated key per row of a multi-row {@code VALUES} list,
+     * counting up from {@code LAST_INSERT_ID()}.
+     */
+    @Override
+    public PreparedStatement prepareInsert(Connection connection, String sql, String idColumn) throws SQLException {
+        return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+    }
 
+    /**
+     * A fetch size of {@code Integer.MIN_VALUE} makes Connector/J stream the rows one by one. Until the
+     * result set is closed, no other statement can run on the connection.
+     */
+    @Override
+    public PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(Integer.MIN_VALUE);
+        return statement;
+    }
+}
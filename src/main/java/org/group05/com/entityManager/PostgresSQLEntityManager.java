@@ -1,9 +1,160 @@
 package org.group05.com.entityManager;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
 public class PostgresSQLEntityManager extends EntityManager {
+    private final Map<PreparedStatement, Connection> cursorConnections = new IdentityHashMap<>();
+
     public PostgresSQLEntityManager(Connection connection) {
         super(connection);
     }
+
+    public PostgresSQLEntityManager(Connection connection, EntityManagerFactory entityManagerFactory) {
+        super(connection, entityManagerFactory);
+    }
+
+    @Override
+    public int getMaxBindParameters() {
+        return 32767;
+    }
+
+    /**
+     * {@code INSERT ... ON CONFLICT (id) DO UPDATE SET column = EXCLUDED.column, ...}, or
+     * {@code DO NOTHING} when the key is the only column written.
+     */
+    @Override
+    public String buildUpsertSql(String tableName, List<String> columns, String idColumn, int rows) {
+        StringJoiner assignments = new StringJoiner(", ", " DO UPDATE SET ", "").setEmptyValue(" DO NOTHING");
+        for (String column : columns) {
+            if (!column.equalsIgnoreCase(idColumn)) {
+                assignments.add(column + " = EXCLUDED." + column);
+            }
+        }
+        return buildInsertSql(tableName, columns, rows) + " ON CONFLICT (" + idColumn + ")" + assignments;
+    }
+
+    @Override
+    public String buildBulkLoadSql(String tableName, List<String> columns) {
+        return "COPY " + tableName + " (" + String.join(", ", columns) + ") FROM STDIN";
+    }
+
+    /**
+     * Streams the rows through the driver's {@link CopyManager}. A failure cancels the copy, so nothing is loaded.
+     */
+    @Override
+    public long bulkLoad(String sql, Iterator<Object[]> rows) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        try {
+            return copyManager.copyIn(sql, new BulkLoadInputStream(rows, this::bulkLoadValue));
+        } catch (IOException e) {
+            throw new SQLException("Error while streaming rows to COPY", e);
+        }
+    }
+
+    /**
+     * {@code bytea} in hex format.
+     */
+    @Override
+    protected String bulkLoadValue(Object value) {
+        if (value instanceof byte[] bytes) {
+            return "\\x" + HexFormat.of().formatHex(bytes);
+        }
+        return super.bulkLoadValue(value);
+    }
+
+    /**
+     * Asking for the key column by name makes the driver append {@code RETURNING id} rather than
+     * {@code RETURNING *}, so the first column of the generated keys is always the key.
+     */
+    @Override
+    public PreparedStatement prepareInsert(Connection connection, String sql, String idColumn) throws SQLException {
+        return connection.prepareStatement(sql, new String[]{idColumn});
+    }
+
+    /**
+     * A row value comparison, which PostgreSQL answers with a single index range scan.
+     */
+    @Override
+    public String seekPredicate(String column, String idColumn, boolean descending) {
+        return "(" + column + ", " + idColumn + ")" + (descending ? " < " : " > ") + "(?, ?)";
+    }
+
+    @Override
+    public Object[] seekParameters(Object value, Object id) {
+        return new Object[]{value, id};
+    }
+
+    /**
+     * The driver only fetches with a cursor inside a transaction. Outside one, the cursor gets a transaction
+     * of its own on a separate pooled connection, so the primary connection stays in autocommit mode; on a
+     * bare connection the rows are fetched all at once instead.
+     */
+    @Override
+    public synchronized PreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+        EntityManagerFactory factory = getEntityManagerFactory();
+        if (factory == null || !connection.getAutoCommit()) {
+            return prepareCursor(connection, sql);
+        }
+        Connection cursorConnection = factory.getConnection();
+        try {
+            cursorConnection.setAutoCommit(false);
+            PreparedStatement statement = prepareCursor(cursorConnection, sql);
+            cursorConnections.put(statement, cursorConnection);
+            return statement;
+        } catch (SQLException | RuntimeException e) {
+            cursorConnection.close();
+            throw e;
+        }
+    }
+
+    private PreparedStatement prepareCursor(Connection connection, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(getStreamFetchSize());
+        return statement;
+    }
+
+    /**
+     * Returning the connection of a cursor to the pool rolls back its read-only transaction.
+     */
+    @Override
+    public synchronized void closeStreaming(PreparedStatement statement) throws SQLException {
+        Connection cursorConnection = cursorConnections.remove(statement);
+        try {
+            statement.close();
+        } finally {
+            if (cursorConnection != null) {
+                cursorConnection.close();
+            }
+        }
+    }
+
+    /**
+     * Also returns the connections of the streams left open.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            for (Connection cursorConnection : cursorConnections.values()) {
+                cursorConnection.close();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while closing the connection", e);
+        } finally {
+            cursorConnections.clear();
+            super.close();
+        }
+    }
 }
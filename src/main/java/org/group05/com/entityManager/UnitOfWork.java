@@ -0,0 +1,176 @@
+package org.group05.com.entityManager;
+
+import org.group05.com.cache.SecondLevelCache;
+import org.group05.com.metadata.EntityMetadata;
+import org.group05.com.repository.RepositoryImpl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * The inserts, updates and deletes queued between {@code begin()} and {@code commit()}, written in batches
+ * per table when flushed: before each query, on commit, or explicitly.
+ */
+public class UnitOfWork {
+    private final Connection connection;
+    private boolean active;
+    private boolean flushing;
+
+    private final List<Object> inserts = new ArrayList<>();
+    private final List<Object> updates = new ArrayList<>();
+    private final List<Object> deletes = new ArrayList<>();
+    private final Set<Object> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<String> writtenTables = new HashSet<>();
+
+    public UnitOfWork(Connection connection) {
+        this.connection = connection;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void begin() {
+        if (active) {
+            throw new IllegalStateException("A transaction is already active");
+        }
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while starting the transaction", e);
+        }
+        active = true;
+    }
+
+    public void registerNew(Object entity) {
+        if (queued.add(entity)) {
+            inserts.add(entity);
+        }
+    }
+
+    /**
+     * Queues an update. Which columns are written is decided at flush time, from the entity's state then.
+     */
+    public void registerDirty(Object entity) {
+        if (queued.add(entity)) {
+            updates.add(entity);
+        }
+    }
+
+    public void registerRemoved(Object entity) {
+        if (inserts.remove(entity)) {
+            // Never written, so there is nothing to delete
+            queued.remove(entity);
+            return;
+        }
+        if (updates.remove(entity)) {
+            queued.remove(entity);
+        }
+        if (queued.add(entity)) {
+            deletes.add(entity);
+        }
+    }
+
+    /**
+     * Records that a table was written in this transaction; its second-level cache region is cleared
+     * again on commit, in case another entity manager cached the old rows in the meantime.
+     */
+    public void written(String tableName) {
+        if (active) {
+            writtenTables.add(tableName);
+        }
+    }
+
+    /**
+     * Writes the queued changes. Does nothing when nothing is queued, or when called again while flushing.
+     */
+    public void flush(RepositoryImpl<?> writer) {
+        if (flushing || queued.isEmpty()) {
+            return;
+        }
+        flushing = true;
+        try {
+            List<Object> insertList = byDepth(inserts);
+            List<Object> updateList = new ArrayList<>(updates);
+            List<Object> deleteList = new ArrayList<>(deletes);
+            inserts.clear();
+            updates.clear();
+            deletes.clear();
+            queued.clear();
+
+            if (!insertList.isEmpty()) {
+                writer.writeInserts(insertList);
+            }
+            if (!updateList.isEmpty()) {
+                writer.writeUpdates(updateList);
+            }
+            if (!deleteList.isEmpty()) {
+                writer.writeDeletes(deleteList);
+            }
+        } finally {
+            flushing = false;
+        }
+    }
+
+    /**
+     * Flushes and commits. If either fails the unit of work stays active, for the caller to roll back.
+     */
+    public void commit(RepositoryImpl<?> writer) {
+        requireActive();
+        flush(writer);
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while committing the transaction", e);
+        }
+        for (String tableName : writtenTables) {
+            SecondLevelCache.getInstance().invalidate(tableName);
+        }
+        end();
+    }
+
+    /**
+     * Drops the queued changes and rolls back what was already flushed.
+     */
+    public void rollback() {
+        requireActive();
+        inserts.clear();
+        updates.clear();
+        deletes.clear();
+        queued.clear();
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while rolling back the transaction", e);
+        } finally {
+            end();
+        }
+    }
+
+    private void end() {
+        active = false;
+        writtenTables.clear();
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while ending the transaction", e);
+        }
+    }
+
+    private void requireActive() {
+        if (!active) {
+            throw new IllegalStateException("No transaction is active");
+        }
+    }
+
+    /**
+     * The entities ordered by the {@linkplain EntityMetadata#getDependencyDepth() dependency depth} of
+     * their class, keeping the order they were queued in otherwise.
+     */
+    private static List<Object> byDepth(Collection<?> entities) {
+        List<Object> sorted = new ArrayList<>(entities);
+        sorted.sort(Comparator.comparingInt(entity -> EntityMetadata.of(entity).getDependencyDepth()));
+        return sorted;
+    }
+}
@@ -0,0 +1,40 @@
+package org.group05.com.entityManager;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs every task on its own virtual thread, at most {@code maxConcurrency} of them at a time; the others
+ * wait for a permit rather than for a pooled connection.
+ */
+public class VirtualThreadExecutor implements Executor, AutoCloseable {
+    private final Semaphore permits;
+    private final ExecutorService threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("orm-async-", 0).factory());
+
+    public VirtualThreadExecutor(int maxConcurrency) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        threads.execute(() -> {
+            // Not interruptible: a task that never runs would leave its future incomplete
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Stops accepting tasks; tasks already submitted still run.
+     */
+    @Override
+    public void close() {
+        threads.shutdown();
+    }
+}
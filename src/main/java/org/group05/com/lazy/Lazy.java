@@ -0,0 +1,91 @@
+package org.group05.com.lazy;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Inspects and initializes lazily loaded associations. A lazy {@code @ManyToOne} holds a reference with only
+ * its key set, which is loaded by {@link #initialize(Object)} or when the row is next read for another reason.
+ */
+public final class Lazy {
+    private static final Map<IdentityKey, Consumer<Object>> REFERENCES = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Object> COLLECTED = new ReferenceQueue<>();
+
+    private Lazy() {
+    }
+
+    /**
+     * Registers an uninitialized reference together with the action that loads it. The loader is given the
+     * reference and must not hold on to it, or the reference would never be collected.
+     */
+    public static void register(Object reference, Consumer<Object> loader) {
+        expungeCollected();
+        REFERENCES.put(new IdentityKey(reference, COLLECTED), loader);
+    }
+
+    /**
+     * Marks a reference as loaded.
+     */
+    public static void loaded(Object reference) {
+        REFERENCES.remove(new IdentityKey(reference, null));
+    }
+
+    public static boolean isLoaded(Object value) {
+        if (value instanceof LazyList<?> list) {
+            return list.isLoaded();
+        }
+        return value == null || !REFERENCES.containsKey(new IdentityKey(value, null));
+    }
+
+    /**
+     * Loads a lazy reference or {@link LazyList} if it has not been loaded yet and returns it.
+     */
+    public static <T> T initialize(T value) {
+        if (value instanceof LazyList<?> list) {
+            list.size();
+        } else if (value != null) {
+            Consumer<Object> loader = REFERENCES.get(new IdentityKey(value, null));
+            if (loader != null) {
+                loader.accept(value);
+            }
+        }
+        return value;
+    }
+
+    private static void expungeCollected() {
+        Object key;
+        while ((key = COLLECTED.poll()) != null) {
+            REFERENCES.remove(key);
+        }
+    }
+
+    /**
+     * A weak key matching its referent by identity: entities may define {@code equals} by value, and
+     * loading a reference in place changes whatever its {@code hashCode} is computed from.
+     */
+    private static final class IdentityKey extends WeakReference<Object> {
+        private final int hash;
+
+        private IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            Object referent = get();
+            return other instanceof IdentityKey key && referent != null && key.get() == referent;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.group05.com.lazy;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The value of a {@code @OneToMany(fetch = FetchType.LAZY)} field. Nothing is queried until the list is
+ * first read or modified; the loader then runs once, through the repository that created the list.
+ */
+public class LazyList<T> extends AbstractList<T> {
+    private Supplier<List<T>> loader;
+    private List<T> delegate;
+
+    public LazyList(Supplier<List<T>> loader) {
+        this.loader = loader;
+    }
+
+    public synchronized boolean isLoaded() {
+        return delegate != null;
+    }
+
+    private synchronized List<T> delegate() {
+        if (delegate == null) {
+            delegate = new ArrayList<>(loader.get());
+            loader = null;
+        }
+        return delegate;
+    }
+
+    @Override
+    public T get(int index) {
+        return delegate().get(index);
+    }
+
+    @Override
+    public int size() {
+        return delegate().size();
+    }
+
+    @Override
+    public T set(int index, T element) {
+        return delegate().set(index, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        delegate().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = delegate().remove(index);
+        modCount++;
+        return removed;
+    }
+}
@@ -0,0 +1,16 @@
+package org.group05.com.logging;
+
+/**
+ * Severity of a log message, from the most verbose to the most severe. A logger set to a level logs the
+ * messages of that level and above; {@link #OFF} logs nothing.
+ */
+public enum LogLevel {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF;
+
+    /**
+     * Whether a logger set to this level logs messages of {@code level}.
+     */
+    public boolean allows(LogLevel level) {
+        return this != OFF && level.ordinal() >= ordinal();
+    }
+}
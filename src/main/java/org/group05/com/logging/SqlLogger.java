@@ -0,0 +1,137 @@
+package org.group05.com.logging;
+
+import org.group05.com.ConfigurationManager;
+import org.group05.com.logging.strategy.LoggingStrategy;
+import org.group05.com.logging.strategy.impl.AsyncFileLogging;
+import org.group05.com.logging.strategy.impl.ConsoleLogging;
+
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Logs the statements repositories run at {@link LogLevel#DEBUG}, and slow ones at {@link LogLevel#WARN}.
+ * Configured by {@code logging.sql.level}, {@code logging.sql.file} and {@code logging.sql.slowQueryThreshold}.
+ */
+public final class SqlLogger {
+    private static volatile SqlLogger defaultLogger;
+
+    private final LoggingStrategy strategy;
+    private final LogLevel level;
+    private final long slowQueryThresholdNanos;
+
+    /**
+     * @param slowQueryThresholdMillis statements taking longer are logged at {@code WARN}; 0 disables it
+     */
+    public SqlLogger(LoggingStrategy strategy, LogLevel level, long slowQueryThresholdMillis) {
+        this.strategy = strategy;
+        this.level = level;
+        this.slowQueryThresholdNanos = slowQueryThresholdMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis) : Long.MAX_VALUE;
+    }
+
+    /**
+     * The logger configured in {@code application.properties}, created on first use.
+     */
+    public static SqlLogger getDefault() {
+        SqlLogger logger = defaultLogger;
+        if (logger == null) {
+            synchronized (SqlLogger.class) {
+                logger = defaultLogger;
+                if (logger == null) {
+                    ConfigurationManager configuration = ConfigurationManager.getInstance();
+                    String file = configuration.getProperty("logging.sql.file", "").trim();
+                    LoggingStrategy strategy = file.isEmpty() ? new ConsoleLogging() : AsyncFileLogging.open(file);
+                    LogLevel level = LogLevel.valueOf(configuration.getProperty("logging.sql.level", "INFO").trim().toUpperCase());
+                    logger = new SqlLogger(strategy, level, configuration.getLongProperty("logging.sql.slowQueryThreshold", 1000));
+                    defaultLogger = logger;
+                }
+            }
+        }
+        return logger;
+    }
+
+    /**
+     * Replaces the logger used by the entity managers created afterwards.
+     */
+    public static void setDefault(SqlLogger logger) {
+        defaultLogger = logger;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public boolean isEnabled(LogLevel messageLevel) {
+        return level.allows(messageLevel);
+    }
+
+    /**
+     * Logs the message built by {@code message}, which is only called when {@code messageLevel} is enabled.
+     */
+    public void log(LogLevel messageLevel, Supplier<String> message) {
+        if (level.allows(messageLevel)) {
+            strategy.log(messageLevel, message.get());
+        }
+    }
+
+    /**
+     * The start time to pass to {@link #executed}.
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Logs a statement that has run, at {@code DEBUG}, or at {@code WARN} when it was slow.
+     *
+     * @param rows the rows read or changed, or -1 when unknown, e.g. for a stream still being read
+     * @return the elapsed time in nanoseconds
+     */
+    public long executed(Statement statement, long startedNanos, long rows) {
+        return executed(statement, startedNanos, rows, 1);
+    }
+
+    /**
+     * @param batch the number of parameter sets run as one batch; only the last one is shown
+     * @return the elapsed time in nanoseconds
+     */
+    public long executed(Statement statement, long startedNanos, long rows, int batch) {
+        return executed((Object) statement, startedNanos, rows, batch);
+    }
+
+    /**
+     * Like {@link #executed(Statement, long, long)}, for SQL run without a JDBC statement, such as a
+     * PostgreSQL {@code COPY}.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long executed(String sql, long startedNanos, long rows) {
+        return executed((Object) sql, startedNanos, rows, 1);
+    }
+
+    /**
+     * @param statement a statement or SQL text, shown as its {@code toString()}
+     */
+    private long executed(Object statement, long startedNanos, long rows, int batch) {
+        long elapsed = System.nanoTime() - startedNanos;
+        boolean slow = elapsed >= slowQueryThresholdNanos;
+        LogLevel messageLevel = slow ? LogLevel.WARN : LogLevel.DEBUG;
+        if (!level.allows(messageLevel)) {
+            return elapsed;
+        }
+        StringBuilder message = new StringBuilder();
+        if (slow) {
+            message.append("Slow query: ");
+        }
+        message.append(statement).append(" -- ").append(String.format(Locale.ROOT, "%.2f ms", elapsed / 1e6));
+        if (rows >= 0) {
+            message.append(", ").append(rows).append(rows == 1 ? " row" : " rows");
+        }
+        if (batch > 1) {
+            message.append(", batch of ").append(batch);
+        }
+        strategy.log(messageLevel, message.toString());
+        return elapsed;
+    }
+}
@@ -3,9 +3,17 @@ package org.group05.com.logging.proxy;
 import org.group05.com.entityManager.EntityManager;
 import org.group05.com.logging.strategy.LoggingStrategy;
 import org.group05.com.repository.IRepository;
+import org.group05.com.repository.KeysetRequest;
+import org.group05.com.repository.Page;
+import org.group05.com.repository.PageRequest;
+import org.group05.com.repository.QueryPlan;
+import org.group05.com.repository.Slice;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 public class RepositoryLoggingProxy<U> implements IRepository<U> {
@@ -17,6 +25,11 @@ public class RepositoryLoggingProxy<U> implements IRepository<U> {
         this.loggingStrategy = loggingStrategy;
     }
 
+    @Override
+    public Class<U> getEntityClass() {
+        return repository.getEntityClass();
+    }
+
     @Override
     public U find(Object id) {
         loggingStrategy.log("Finding entity with id: " + id);
@@ -29,10 +42,76 @@ public class RepositoryLoggingProxy<U> implements IRepository<U> {
         return repository.find(column, value);
     }
 
+    @Override
+    public Stream<U> stream() {
+        loggingStrategy.log("Streaming all entities");
+        return repository.stream();
+    }
+
+    @Override
+    public Stream<U> stream(String column, String value) {
+        loggingStrategy.log("Streaming entities with " + column + " = " + value);
+        return repository.stream(column, value);
+    }
+
+    @Override
+    public Page<U> findPage(PageRequest request) {
+        loggingStrategy.log("Finding page: " + request);
+        return repository.findPage(request);
+    }
+
+    @Override
+    public Page<U> findPage(String column, String value, PageRequest request) {
+        loggingStrategy.log("Finding page with " + column + " = " + value + ": " + request);
+        return repository.findPage(column, value, request);
+    }
+
+    @Override
+    public Slice<U> findSlice(KeysetRequest request) {
+        loggingStrategy.log("Finding slice: " + request);
+        return repository.findSlice(request);
+    }
+
+    @Override
+    public Slice<U> findSlice(String column, String value, KeysetRequest request) {
+        loggingStrategy.log("Finding slice with " + column + " = " + value + ": " + request);
+        return repository.findSlice(column, value, request);
+    }
+
     @Override
     public U insert(U entity) {
         loggingStrategy.log("Saving entity: " + entity.toString());
-        return repository.find(entity);
+        return repository.insert(entity);
+    }
+
+    @Override
+    public List<U> insertAll(Collection<U> entities) {
+        loggingStrategy.log("Saving " + entities.size() + " entities");
+        return repository.insertAll(entities);
+    }
+
+    @Override
+    public U upsert(U entity) {
+        loggingStrategy.log("Upserting entity: " + entity.toString());
+        return repository.upsert(entity);
+    }
+
+    @Override
+    public List<U> upsertAll(Collection<U> entities) {
+        loggingStrategy.log("Upserting " + entities.size() + " entities");
+        return repository.upsertAll(entities);
+    }
+
+    @Override
+    public long bulkLoad(Stream<U> entities) {
+        loggingStrategy.log("Bulk loading a stream of entities");
+        return repository.bulkLoad(entities);
+    }
+
+    @Override
+    public long bulkLoad(Iterator<U> entities) {
+        loggingStrategy.log("Bulk loading entities");
+        return repository.bulkLoad(entities);
     }
 
     @Override
@@ -52,4 +131,15 @@ public class RepositoryLoggingProxy<U> implements IRepository<U> {
         loggingStrategy.log("Executing query: " + query);
         return repository.executeQuery(method, query, params);
     }
+
+    @Override
+    public Object execute(QueryPlan plan, Object... args) {
+        loggingStrategy.log("Executing " + plan.getName() + ": " + plan.getSql());
+        return repository.execute(plan, args);
+    }
+
+    @Override
+    public IRepository<U> decorate(IRepository<U> repository) {
+        return new RepositoryLoggingProxy<>(this.repository.decorate(repository), loggingStrategy);
+    }
 }
@@ -1,5 +1,14 @@
 package org.group05.com.logging.strategy;
 
+import org.group05.com.logging.LogLevel;
+
 public interface LoggingStrategy {
+    /**
+     * Logs a message at {@link LogLevel#INFO}.
+     */
     void log(String message);
+
+    default void log(LogLevel level, String message) {
+        log(message);
+    }
 }
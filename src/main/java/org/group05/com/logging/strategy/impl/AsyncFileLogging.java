@@ -0,0 +1,265 @@
+package org.group05.com.logging.strategy.impl;
+
+import org.group05.com.ConfigurationManager;
+import org.group05.com.logging.LogLevel;
+import org.group05.com.logging.strategy.LoggingStrategy;
+import org.group05.com.utils.LoggingUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * File logging that queues messages and leaves formatting, writing and rotating the file to a background
+ * thread. Settings are read from {@code logging.file.*} in {@code application.properties}.
+ */
+public final class AsyncFileLogging implements LoggingStrategy, AutoCloseable {
+    public enum OverflowPolicy {
+        /** The caller waits until the writer has made room */
+        BLOCK,
+        /** The message is discarded and counted */
+        DROP
+    }
+
+    private record LogEvent(long timestamp, LogLevel level, String message) {
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Path file;
+    private final LogRingBuffer<LogEvent> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long flushIntervalNanos;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final ByteBuffer buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private volatile boolean closed;
+
+    private FileChannel channel;
+    private long fileSize;
+    private final long[] prefixSeconds = new long[LogLevel.values().length];
+    private final String[] prefixes = new String[LogLevel.values().length];
+
+    /**
+     * Opens {@code fileName} for appending and starts the writer thread.
+     */
+    public static AsyncFileLogging open(String fileName) {
+        return open(fileName, "logging.file.");
+    }
+
+    /**
+     * @param prefix prefix of the setting names, e.g. {@code logging.file.}
+     */
+    public static AsyncFileLogging open(String fileName, String prefix) {
+        AsyncFileLogging logging = new AsyncFileLogging(fileName, prefix);
+        // Started only once constructed, so the writer and the shutdown hook see every field set
+        Runtime.getRuntime().addShutdownHook(logging.shutdownHook);
+        logging.writer.start();
+        return logging;
+    }
+
+    private AsyncFileLogging(String fileName, String prefix) {
+        ConfigurationManager configuration = ConfigurationManager.getInstance();
+        this.file = Path.of(fileName);
+        this.queue = new LogRingBuffer<>(configuration.getIntProperty(prefix + "queueCapacity", 8192));
+        this.overflowPolicy = OverflowPolicy.valueOf(configuration.getProperty(prefix + "overflowPolicy", "BLOCK").trim().toUpperCase());
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, configuration.getLongProperty(prefix + "flushInterval", 1000)));
+        this.maxFileSize = configuration.getLongProperty(prefix + "maxFileSize", 10L * 1024 * 1024);
+        this.maxFiles = Math.max(0, configuration.getIntProperty(prefix + "maxFiles", 5));
+        this.buffer = ByteBuffer.allocateDirect(Math.max(1024, configuration.getIntProperty(prefix + "bufferSize", 64 * 1024)));
+
+        Arrays.fill(prefixSeconds, -1);
+        try {
+            openChannel();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open log file " + fileName, e);
+        }
+        this.writer = Thread.ofPlatform().name("orm-log-writer").daemon().unstarted(this::drain);
+        this.shutdownHook = new Thread(this::close, "orm-log-shutdown");
+    }
+
+    @Override
+    public void log(String message) {
+        log(LogLevel.INFO, message);
+    }
+
+    @Override
+    public void log(LogLevel level, String message) {
+        if (closed) {
+            return;
+        }
+        LogEvent event = new LogEvent(System.currentTimeMillis(), level, message);
+        if (queue.offer(event)) {
+            wakeWriterIfFilling();
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            dropped.incrementAndGet();
+            LockSupport.unpark(writer);
+            return;
+        }
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        } while (!queue.offer(event) && !closed);
+    }
+
+    /**
+     * Number of messages discarded so far because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stops accepting messages, writes out the queued ones and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+        }
+    }
+
+    /**
+     * The writer parks between flushes; producers wake it early once the queue is half full so that it
+     * drains before callers have to wait or drop.
+     */
+    private void wakeWriterIfFilling() {
+        if (queue.size() >= queue.capacity() / 2) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void drain() {
+        long lastFlush = System.nanoTime();
+        try {
+            while (true) {
+                boolean stopping = closed;
+                LogEvent event;
+                while ((event = queue.poll()) != null) {
+                    append(line(event.timestamp(), event.level(), event.message()));
+                }
+                long lost = dropped.getAndSet(0);
+                if (lost > 0) {
+                    append(line(System.currentTimeMillis(), LogLevel.WARN, "Dropped " + lost + " log messages: queue full"));
+                }
+
+                long now = System.nanoTime();
+                if (stopping || now - lastFlush >= flushIntervalNanos) {
+                    flush();
+                    lastFlush = now;
+                }
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(Math.max(1, flushIntervalNanos - (System.nanoTime() - lastFlush)));
+            }
+        } catch (IOException e) {
+            closed = true;
+            e.printStackTrace();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Formats a line; the timestamp prefix only changes once per second, so it is formatted once per second
+     * and level.
+     */
+    private byte[] line(long timestamp, LogLevel level, String message) {
+        long second = timestamp / 1000;
+        int index = level.ordinal();
+        if (second != prefixSeconds[index]) {
+            prefixes[index] = LoggingUtils.getLoggingMessage("", level.name(), timestamp);
+            prefixSeconds[index] = second;
+        }
+        return (prefixes[index] + message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void append(byte[] line) throws IOException {
+        if (line.length > buffer.remaining()) {
+            flush();
+        }
+        if (maxFileSize > 0 && fileSize + buffer.position() + line.length > maxFileSize && fileSize + buffer.position() > 0) {
+            flush();
+            rotate();
+        }
+        if (line.length > buffer.capacity()) {
+            write(ByteBuffer.wrap(line));
+        } else {
+            buffer.put(line);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            fileSize += channel.write(bytes);
+        }
+    }
+
+    /**
+     * Shifts {@code file.1 .. file.(maxFiles - 1)} up by one, moves the current file to {@code file.1} and
+     * starts a new one.
+     */
+    private void rotate() throws IOException {
+        channel.close();
+        if (maxFiles == 0) {
+            Files.deleteIfExists(file);
+        } else {
+            Files.deleteIfExists(rotated(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                if (Files.exists(rotated(i))) {
+                    Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        openChannel();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+    }
+}
@@ -1,5 +1,6 @@
 package org.group05.com.logging.strategy.impl;
 
+import org.group05.com.logging.LogLevel;
 import org.group05.com.logging.strategy.LoggingStrategy;
 import org.group05.com.utils.LoggingUtils;
 
@@ -7,6 +8,11 @@ import org.group05.com.utils.LoggingUtils;
 public class ConsoleLogging implements LoggingStrategy {
     @Override
     public void log(String message) {
-        System.out.println(LoggingUtils.getLoggingMessage(message, "INFO"));
+        log(LogLevel.INFO, message);
+    }
+
+    @Override
+    public void log(LogLevel level, String message) {
+        System.out.println(LoggingUtils.getLoggingMessage(message, level.name()));
     }
 }
@@ -1,5 +1,6 @@
 package org.group05.com.logging.strategy.impl;
 
+import org.group05.com.logging.LogLevel;
 import org.group05.com.logging.strategy.LoggingStrategy;
 import org.group05.com.utils.LoggingUtils;
 
@@ -15,7 +16,12 @@ public class FileLogging implements LoggingStrategy {
 
     @Override
     public void log(String message) {
-        String loggingMessage = LoggingUtils.getLoggingMessage(message, "INFO");
+        log(LogLevel.INFO, message);
+    }
+
+    @Override
+    public void log(LogLevel level, String message) {
+        String loggingMessage = LoggingUtils.getLoggingMessage(message, level.name());
         try (FileWriter writer = new FileWriter(fileName, true)) { // Mở file ở chế độ append
             writer.write(loggingMessage + System.lineSeparator());
         } catch (IOException e) {
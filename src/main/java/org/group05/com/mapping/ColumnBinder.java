@@ -0,0 +1,123 @@
+package org.group05.com.mapping;
+
+import org.group05.com.metadata.ColumnMetadata;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Copies one result set column into one entity field. The column index and the typed getter are
+ * fixed when the binder is created, so binding a row is a getter call plus a method handle call.
+ */
+@FunctionalInterface
+interface ColumnBinder {
+    void bind(ResultSet resultSet, Object entity) throws Throwable;
+
+    static ColumnBinder of(ColumnMetadata column, int index) {
+        MethodHandle setter = column.getAccessor().getSetter();
+        Class<?> type = column.getType();
+
+        if (type == int.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getInt(index));
+            };
+        } else if (type == long.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getLong(index));
+            };
+        } else if (type == double.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getDouble(index));
+            };
+        } else if (type == float.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getFloat(index));
+            };
+        } else if (type == boolean.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getBoolean(index));
+            };
+        } else if (type == short.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getShort(index));
+            };
+        } else if (type == Integer.class) {
+            return (rs, entity) -> {
+                int value = rs.getInt(index);
+                setter.invokeExact(entity, rs.wasNull() ? (Integer) null : Integer.valueOf(value));
+            };
+        } else if (type == Long.class) {
+            return (rs, entity) -> {
+                long value = rs.getLong(index);
+                setter.invokeExact(entity, rs.wasNull() ? (Long) null : Long.valueOf(value));
+            };
+        } else if (type == Double.class) {
+            return (rs, entity) -> {
+                double value = rs.getDouble(index);
+                setter.invokeExact(entity, rs.wasNull() ? (Double) null : Double.valueOf(value));
+            };
+        } else if (type == Boolean.class) {
+            return (rs, entity) -> {
+                boolean value = rs.getBoolean(index);
+                setter.invokeExact(entity, rs.wasNull() ? (Boolean) null : Boolean.valueOf(value));
+            };
+        } else if (type == String.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getString(index));
+            };
+        } else if (type == BigDecimal.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getBigDecimal(index));
+            };
+        } else if (type == LocalDate.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getObject(index, LocalDate.class));
+            };
+        } else if (type == LocalDateTime.class) {
+            return (rs, entity) -> {
+                setter.invokeExact(entity, rs.getObject(index, LocalDateTime.class));
+            };
+        }
+
+        // java.util.Date and anything else: take what the driver returns and adapt it to the field
+        return (rs, entity) -> column.set(entity, convert(rs.getObject(index), type));
+    }
+
+    static Object convert(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        if (type == java.util.Date.class || type == java.sql.Date.class || type == Timestamp.class) {
+            if (value instanceof LocalDate date) {
+                value = java.sql.Date.valueOf(date);
+            } else if (value instanceof LocalDateTime dateTime) {
+                value = Timestamp.valueOf(dateTime);
+            }
+            if (type == java.sql.Date.class && value instanceof java.util.Date date) {
+                return new java.sql.Date(date.getTime());
+            }
+            if (type == Timestamp.class && value instanceof java.util.Date date) {
+                return new Timestamp(date.getTime());
+            }
+            return value;
+        }
+        if (value instanceof Number number) {
+            if (type == Integer.class || type == int.class) {
+                return number.intValue();
+            } else if (type == Long.class || type == long.class) {
+                return number.longValue();
+            } else if (type == Double.class || type == double.class) {
+                return number.doubleValue();
+            } else if (type == Short.class || type == short.class) {
+                return number.shortValue();
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(number.toString());
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,108 @@
+package org.group05.com.mapping;
+
+import org.group05.com.metadata.ColumnMetadata;
+import org.group05.com.metadata.EntityMetadata;
+import org.group05.com.metadata.RelationMetadata;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps rows of one result set shape to instances of one entity class, by column index. Relationship fields
+ * are left to the repository, which reads their join columns through {@link #readForeignKey}.
+ */
+public final class EntityRowMapper<T> {
+    private final EntityMetadata<T> metadata;
+    private final ColumnBinder[] binders;
+    private final int idIndex;
+    private final int[] joinColumnIndexes;
+
+    EntityRowMapper(EntityMetadata<T> metadata, Map<String, Integer> columnIndexes) {
+        this.metadata = metadata;
+
+        List<ColumnMetadata> columns = metadata.getColumns();
+        ColumnBinder[] binderList = new ColumnBinder[columns.size()];
+        int count = 0;
+        int id = -1;
+        for (ColumnMetadata column : columns) {
+            Integer index = columnIndexes.get(column.getName().toLowerCase());
+            if (index == null) {
+                continue;
+            }
+            binderList[count++] = ColumnBinder.of(column, index);
+            if (column.isId()) {
+                id = index;
+            }
+        }
+        this.binders = Arrays.copyOf(binderList, count);
+        this.idIndex = id;
+
+        List<RelationMetadata> relations = metadata.getManyToOneRelations();
+        this.joinColumnIndexes = new int[relations.size()];
+        for (RelationMetadata relation : relations) {
+            Integer index = columnIndexes.get(relation.getJoinColumn().toLowerCase());
+            joinColumnIndexes[relation.getIndex()] = index == null ? -1 : index;
+        }
+    }
+
+    public EntityMetadata<T> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Whether the result set holds every column and join column of the entity, i.e. the mapped
+     * entity is a full copy of its row rather than a projection.
+     */
+    public boolean isComplete() {
+        if (binders.length != metadata.getColumns().size()) {
+            return false;
+        }
+        for (int index : joinColumnIndexes) {
+            if (index < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public T mapRow(ResultSet resultSet) throws SQLException {
+        return mapRow(resultSet, metadata.newInstance());
+    }
+
+    /**
+     * Copies the current row into an existing instance, e.g. an uninitialized lazy reference.
+     */
+    public T mapRow(ResultSet resultSet, T entity) throws SQLException {
+        try {
+            for (ColumnBinder binder : binders) {
+                binder.bind(resultSet, entity);
+            }
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Error while mapping result set to entity", e);
+        }
+        return entity;
+    }
+
+    /**
+     * The primary key of the current row, or null when the result set does not contain it.
+     */
+    public Object readId(ResultSet resultSet) throws SQLException {
+        if (idIndex < 0) {
+            return null;
+        }
+        return EntityMetadata.convertKey(resultSet.getObject(idIndex), metadata.getIdColumn().getType());
+    }
+
+    /**
+     * The join column value of a {@code @ManyToOne} relation in the current row.
+     */
+    public Object readForeignKey(ResultSet resultSet, RelationMetadata relation) throws SQLException {
+        int index = joinColumnIndexes[relation.getIndex()];
+        return index < 0 ? null : resultSet.getObject(index);
+    }
+}
@@ -0,0 +1,273 @@
+package org.group05.com.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps rows of one result set shape to a record, a DTO, a scalar, or {@code Object[]}. Columns match
+ * components by name, ignoring case and underscores, or else by position.
+ */
+public final class ProjectionMapper<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType ROW_TYPE = MethodType.methodType(Object.class, ResultSet.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, ResultSet.class);
+
+    private final Class<T> type;
+    private final int columnCount;
+    private final MethodHandle rowMapper;
+    private final MethodHandle instantiator;
+    private final MethodHandle[] setters;
+
+    ProjectionMapper(Class<T> type, String[] labels) {
+        this.type = type;
+        this.columnCount = labels.length;
+        if (type == Object[].class) {
+            this.rowMapper = null;
+            this.instantiator = null;
+            this.setters = null;
+            return;
+        }
+        try {
+            if (isScalar(type)) {
+                this.rowMapper = reader(type, 1).asType(ROW_TYPE);
+                this.instantiator = null;
+                this.setters = null;
+                return;
+            }
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+            MethodHandle fieldMapper = type.isRecord() ? null : fieldMapper(lookup, type, labels);
+            if (fieldMapper != null) {
+                this.rowMapper = null;
+                this.instantiator = fieldMapper;
+                this.setters = setters(type, labels);
+            } else {
+                this.rowMapper = constructorMapper(lookup, type, labels);
+                this.instantiator = null;
+                this.setters = null;
+            }
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new RuntimeException("Cannot map query results to " + type.getSimpleName(), e);
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T mapRow(ResultSet resultSet) throws SQLException {
+        try {
+            if (rowMapper != null) {
+                return (T) (Object) rowMapper.invokeExact(resultSet);
+            }
+            if (instantiator != null) {
+                Object instance = (Object) instantiator.invokeExact();
+                for (MethodHandle setter : setters) {
+                    setter.invokeExact(instance, resultSet);
+                }
+                return (T) instance;
+            }
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = resultSet.getObject(i + 1);
+            }
+            return (T) row;
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Error while mapping result set to " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Whether a value of {@code type} is read from a single column rather than built from a whole row.
+     */
+    public static boolean isScalar(Class<?> type) {
+        return type.isPrimitive() || Number.class.isAssignableFrom(type) || type == Boolean.class
+                || type == Character.class || type == String.class || type == Object.class
+                || Temporal.class.isAssignableFrom(type) || java.util.Date.class.isAssignableFrom(type)
+                || type == UUID.class || type == byte[].class;
+    }
+
+    /**
+     * A handle {@code ()Object} creating the DTO through its no-arg constructor, when it has one and at
+     * least one column matches one of its fields.
+     */
+    private static MethodHandle fieldMapper(MethodHandles.Lookup lookup, Class<?> type, String[] labels) throws IllegalAccessException {
+        Map<String, Integer> columns = columnIndexes(labels);
+        boolean matches = false;
+        for (Field field : instanceFields(type)) {
+            matches |= columns.containsKey(normalize(field.getName()));
+        }
+        if (!matches) {
+            return null;
+        }
+        try {
+            return lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * One handle {@code (Object, ResultSet)void} per field with a matching column, reading the column with
+     * its typed getter and storing it without boxing.
+     */
+    private static MethodHandle[] setters(Class<?> type, String[] labels) throws IllegalAccessException, NoSuchMethodException {
+        Map<String, Integer> columns = columnIndexes(labels);
+        List<MethodHandle> setters = new ArrayList<>();
+        for (Field field : instanceFields(type)) {
+            Integer index = columns.get(normalize(field.getName()));
+            if (index == null || Modifier.isFinal(field.getModifiers())) {
+                continue;
+            }
+            MethodHandle setter = MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP).unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, field.getType()));
+            setters.add(MethodHandles.filterArguments(setter, 1, reader(field.getType(), index)).asType(SETTER_TYPE));
+        }
+        return setters.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * A handle {@code (ResultSet)Object} passing one typed column value per constructor parameter: the record
+     * components matched by name, or else the columns in order to the constructor taking as many arguments.
+     */
+    private static MethodHandle constructorMapper(MethodHandles.Lookup lookup, Class<?> type, String[] labels)
+            throws IllegalAccessException, NoSuchMethodException {
+        Constructor<?> constructor = null;
+        int[] indexes = null;
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+            constructor = type.getDeclaredConstructor(parameterTypes);
+            indexes = byName(components, labels);
+        } else {
+            for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+                if (candidate.getParameterCount() == labels.length) {
+                    constructor = candidate;
+                    break;
+                }
+            }
+        }
+        if (constructor == null || indexes == null && constructor.getParameterCount() != labels.length) {
+            throw new IllegalArgumentException("Cannot map the columns " + Arrays.toString(labels) + " to "
+                    + type.getSimpleName() + ": no matching field names or constructor");
+        }
+        if (indexes == null) {
+            indexes = new int[labels.length];
+            Arrays.setAll(indexes, i -> i + 1);
+        }
+
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        MethodHandle[] readers = new MethodHandle[parameterTypes.length];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = reader(parameterTypes[i], indexes[i]);
+        }
+        // (ResultSet, ResultSet, ...) -> T, then every argument fed from the single ResultSet argument
+        MethodHandle mapper = MethodHandles.filterArguments(lookup.unreflectConstructor(constructor), 0, readers);
+        mapper = MethodHandles.permuteArguments(mapper, MethodType.methodType(type, ResultSet.class),
+                new int[parameterTypes.length]);
+        return mapper.asType(ROW_TYPE);
+    }
+
+    /**
+     * The column of each record component when every component has a column of the same name, else null.
+     */
+    private static int[] byName(RecordComponent[] components, String[] labels) {
+        Map<String, Integer> columns = columnIndexes(labels);
+        int[] indexes = new int[components.length];
+        for (int i = 0; i < components.length; i++) {
+            Integer index = columns.get(normalize(components[i].getName()));
+            if (index == null) {
+                return null;
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * A handle {@code (ResultSet)<type>} reading column {@code index} with the getter of {@code type}.
+     */
+    private static MethodHandle reader(Class<?> type, int index) throws IllegalAccessException, NoSuchMethodException {
+        MethodHandle getter;
+        if (type == int.class) {
+            getter = resultSetGetter("getInt", int.class);
+        } else if (type == long.class) {
+            getter = resultSetGetter("getLong", long.class);
+        } else if (type == double.class) {
+            getter = resultSetGetter("getDouble", double.class);
+        } else if (type == float.class) {
+            getter = resultSetGetter("getFloat", float.class);
+        } else if (type == boolean.class) {
+            getter = resultSetGetter("getBoolean", boolean.class);
+        } else if (type == short.class) {
+            getter = resultSetGetter("getShort", short.class);
+        } else if (type == String.class) {
+            getter = resultSetGetter("getString", String.class);
+        } else if (type == BigDecimal.class) {
+            getter = resultSetGetter("getBigDecimal", BigDecimal.class);
+        } else if (type == Integer.class || type == Long.class || type == Double.class || type == Boolean.class
+                || type == Short.class || type == LocalDate.class || type == LocalDateTime.class) {
+            getter = MethodHandles.insertArguments(
+                    LOOKUP.findVirtual(ResultSet.class, "getObject",
+                            MethodType.methodType(Object.class, int.class, Class.class)), 2, type);
+        } else {
+            // java.util.Date and anything else: take what the driver returns and adapt it to the type
+            getter = MethodHandles.insertArguments(
+                    LOOKUP.findStatic(ProjectionMapper.class, "readConverted",
+                            MethodType.methodType(Object.class, ResultSet.class, int.class, Class.class)), 2, type);
+        }
+        return MethodHandles.insertArguments(getter, 1, index).asType(MethodType.methodType(type, ResultSet.class));
+    }
+
+    private static MethodHandle resultSetGetter(String name, Class<?> type) throws IllegalAccessException, NoSuchMethodException {
+        return LOOKUP.findVirtual(ResultSet.class, name, MethodType.methodType(type, int.class));
+    }
+
+    private static Object readConverted(ResultSet resultSet, int index, Class<?> type) throws SQLException {
+        return ColumnBinder.convert(resultSet.getObject(index), type);
+    }
+
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, Integer> columnIndexes(String[] labels) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            indexes.putIfAbsent(normalize(labels[i]), i + 1);
+        }
+        return indexes;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase();
+    }
+}
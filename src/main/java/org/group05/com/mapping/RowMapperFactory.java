@@ -0,0 +1,78 @@
+package org.group05.com.mapping;
+
+import org.group05.com.metadata.EntityMetadata;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches one {@link EntityRowMapper} or {@link ProjectionMapper} per result type and result set shape, the
+ * ordered list of column labels.
+ */
+public final class RowMapperFactory {
+    private static final Map<MapperKey, EntityRowMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+    private static final Map<MapperKey, ProjectionMapper<?>> PROJECTIONS = new ConcurrentHashMap<>();
+
+    private record MapperKey(Class<?> entityClass, String prefix, List<String> labels) {
+    }
+
+    private RowMapperFactory() {
+    }
+
+    public static <T> EntityRowMapper<T> forResultSet(Class<T> entityClass, ResultSet resultSet) throws SQLException {
+        return forResultSet(entityClass, resultSet, "");
+    }
+
+    /**
+     * A mapper reading only the columns whose label starts with {@code prefix}, e.g. {@code t1_} for the
+     * columns of a joined table selected as {@code t1.first_name AS t1_first_name}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityRowMapper<T> forResultSet(Class<T> entityClass, ResultSet resultSet, String prefix) throws SQLException {
+        String[] labels = labels(resultSet);
+        MapperKey key = new MapperKey(entityClass, prefix, Arrays.asList(labels));
+        EntityRowMapper<?> mapper = MAPPERS.get(key);
+        if (mapper == null) {
+            mapper = MAPPERS.computeIfAbsent(key, k -> new EntityRowMapper<>(EntityMetadata.of(entityClass), indexes(labels, prefix)));
+        }
+        return (EntityRowMapper<T>) mapper;
+    }
+
+    /**
+     * A mapper of rows to {@code type}: a record, a DTO class, a scalar or {@code Object[]}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ProjectionMapper<T> forProjection(Class<T> type, ResultSet resultSet) throws SQLException {
+        String[] labels = labels(resultSet);
+        MapperKey key = new MapperKey(type, "", Arrays.asList(labels));
+        ProjectionMapper<?> mapper = PROJECTIONS.get(key);
+        if (mapper == null) {
+            mapper = PROJECTIONS.computeIfAbsent(key, k -> new ProjectionMapper<>(type, labels));
+        }
+        return (ProjectionMapper<T>) mapper;
+    }
+
+    private static String[] labels(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+        int columnCount = resultSetMetaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = resultSetMetaData.getColumnLabel(i + 1).toLowerCase();
+        }
+        return labels;
+    }
+
+    private static Map<String, Integer> indexes(String[] labels, String prefix) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].startsWith(prefix)) {
+                // First occurrence wins when a join returns the same column name twice
+                indexes.putIfAbsent(labels[i].substring(prefix.length()), i + 1);
+            }
+        }
+        return indexes;
+    }
+}
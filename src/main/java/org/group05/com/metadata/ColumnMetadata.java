@@ -0,0 +1,62 @@
+package org.group05.com.metadata;
+
+import java.lang.reflect.Field;
+
+/**
+ * A basic (non-relationship) column of an entity: the mapped field, its column name
+ * and whether it is the primary key.
+ */
+public final class ColumnMetadata {
+    private final Field field;
+    private final FieldAccessor accessor;
+    private final String name;
+    private final boolean id;
+    private final int index;
+
+    ColumnMetadata(Field field, String name, boolean id, int index) {
+        this.field = field;
+        this.accessor = new FieldAccessor(field);
+        this.name = name;
+        this.id = id;
+        this.index = index;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getFieldName() {
+        return field.getName();
+    }
+
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isId() {
+        return id;
+    }
+
+    /**
+     * Position of this column in {@link EntityMetadata#getColumns()}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public Object get(Object entity) {
+        return accessor.get(entity);
+    }
+
+    public void set(Object entity, Object value) {
+        accessor.set(entity, value);
+    }
+}
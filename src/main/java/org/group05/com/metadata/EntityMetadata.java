@@ -0,0 +1,316 @@
+package org.group05.com.metadata;
+
+import org.group05.com.annotations.*;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Immutable mapping information of an {@code @Entity} class, read once per class by {@link #of(Class)}.
+ */
+public final class EntityMetadata<T> {
+    private static final Map<Class<?>, EntityMetadata<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final Class<T> entityClass;
+    private final String tableName;
+    private final Cacheable cacheable;
+    private final Supplier<T> instantiator;
+    private final ColumnMetadata idColumn;
+    private final List<ColumnMetadata> columns;
+    private final List<RelationMetadata> manyToOneRelations;
+    private final List<RelationMetadata> oneToManyRelations;
+    private final List<RelationMetadata> joinFetchRelations;
+    private final Map<String, ColumnMetadata> columnsByField;
+    private final Map<String, ColumnMetadata> columnsByName;
+    private final Map<String, RelationMetadata> relationsByField;
+    private volatile int dependencyDepth = -1;
+
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMetadata<T> of(Class<T> entityClass) {
+        EntityMetadata<?> metadata = CACHE.get(entityClass);
+        if (metadata == null) {
+            metadata = CACHE.computeIfAbsent(entityClass, EntityMetadata::new);
+        }
+        return (EntityMetadata<T>) metadata;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMetadata<T> of(T entity) {
+        return of((Class<T>) entity.getClass());
+    }
+
+    private EntityMetadata(Class<T> entityClass) {
+        Entity entity = entityClass.getAnnotation(Entity.class);
+        if (entity == null) {
+            throw new IllegalArgumentException("Class " + entityClass.getSimpleName() + " is not annotated with @Entity");
+        }
+        this.entityClass = entityClass;
+        this.tableName = entity.tableName().isEmpty() ? entityClass.getSimpleName().toLowerCase() : entity.tableName();
+        this.cacheable = entityClass.getAnnotation(Cacheable.class);
+
+        ColumnMetadata id = null;
+        List<ColumnMetadata> columnList = new ArrayList<>();
+        List<RelationMetadata> manyToOneList = new ArrayList<>();
+        List<RelationMetadata> oneToManyList = new ArrayList<>();
+        for (Field field : entityClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            if (field.isAnnotationPresent(ManyToOne.class)) {
+                ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
+                String joinColumn = joinColumnName(field, manyToOne.joinColumn(), field.getType());
+                manyToOneList.add(new RelationMetadata(field, RelationMetadata.Kind.MANY_TO_ONE,
+                        field.getType(), joinColumn, manyToOne.cascade().equals("ALL"), manyToOne.fetch(), manyToOneList.size()));
+            } else if (field.isAnnotationPresent(OneToMany.class)) {
+                OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+                String joinColumn = joinColumnName(field, oneToMany.joinColumn(), entityClass);
+                oneToManyList.add(new RelationMetadata(field, RelationMetadata.Kind.ONE_TO_MANY,
+                        elementType(field), joinColumn, oneToMany.cascade().equals("ALL"), oneToMany.fetch(), oneToManyList.size()));
+            } else {
+                boolean isId = field.isAnnotationPresent(Id.class);
+                ColumnMetadata column = new ColumnMetadata(field, columnName(field), isId, columnList.size());
+                columnList.add(column);
+                if (isId && id == null) {
+                    id = column;
+                }
+            }
+        }
+        this.idColumn = id;
+        this.columns = List.copyOf(columnList);
+        this.manyToOneRelations = List.copyOf(manyToOneList);
+        this.oneToManyRelations = List.copyOf(oneToManyList);
+        this.joinFetchRelations = manyToOneList.stream()
+                .filter(relation -> relation.getFetchType() == FetchType.JOIN)
+                .toList();
+
+        Map<String, ColumnMetadata> byField = new HashMap<>();
+        Map<String, ColumnMetadata> byName = new HashMap<>();
+        for (ColumnMetadata column : columns) {
+            byField.put(column.getFieldName(), column);
+            byName.put(column.getName().toLowerCase(), column);
+        }
+        Map<String, RelationMetadata> relations = new HashMap<>();
+        for (RelationMetadata relation : manyToOneRelations) {
+            relations.put(relation.getFieldName(), relation);
+        }
+        for (RelationMetadata relation : oneToManyRelations) {
+            relations.put(relation.getFieldName(), relation);
+        }
+        this.columnsByField = Map.copyOf(byField);
+        this.columnsByName = Map.copyOf(byName);
+        this.relationsByField = Map.copyOf(relations);
+
+        this.instantiator = instantiator(entityClass);
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * The second-level cache settings, or null when the entity is not cached.
+     */
+    public Cacheable getCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * Length of the longest chain of {@code @ManyToOne} parents above this entity, ignoring cycles: inserting by
+     * increasing depth writes parents before their children.
+     */
+    public int getDependencyDepth() {
+        int depth = dependencyDepth;
+        if (depth < 0) {
+            depth = dependencyDepth(this, new HashSet<>());
+            dependencyDepth = depth;
+        }
+        return depth;
+    }
+
+    private static int dependencyDepth(EntityMetadata<?> metadata, Set<Class<?>> visiting) {
+        if (!visiting.add(metadata.entityClass)) {
+            return -1;
+        }
+        int depth = 0;
+        for (RelationMetadata relation : metadata.manyToOneRelations) {
+            depth = Math.max(depth, 1 + dependencyDepth(of(relation.getTargetClass()), visiting));
+        }
+        visiting.remove(metadata.entityClass);
+        return depth;
+    }
+
+    public boolean hasId() {
+        return idColumn != null;
+    }
+
+    public ColumnMetadata getIdColumn() {
+        if (idColumn == null) {
+            throw new RuntimeException("Primary key not found in class " + entityClass.getSimpleName());
+        }
+        return idColumn;
+    }
+
+    public String getIdColumnName() {
+        return getIdColumn().getName();
+    }
+
+    public Object getIdValue(Object entity) {
+        return getIdColumn().get(entity);
+    }
+
+    /**
+     * Sets the primary key, converting numeric keys returned by the driver to the field type.
+     */
+    public void setIdValue(Object entity, Object value) {
+        ColumnMetadata id = getIdColumn();
+        id.set(entity, convertKey(value, id.getType()));
+    }
+
+    /**
+     * Basic columns in declaration order, the primary key included.
+     */
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    public List<RelationMetadata> getManyToOneRelations() {
+        return manyToOneRelations;
+    }
+
+    public List<RelationMetadata> getOneToManyRelations() {
+        return oneToManyRelations;
+    }
+
+    public ColumnMetadata getColumnByField(String fieldName) {
+        return columnsByField.get(fieldName);
+    }
+
+    public ColumnMetadata getColumnByName(String columnName) {
+        return columnsByName.get(columnName.toLowerCase());
+    }
+
+    public RelationMetadata getRelationByField(String fieldName) {
+        return relationsByField.get(fieldName);
+    }
+
+    /**
+     * The {@code @ManyToOne} relations declared with {@code fetch = FetchType.JOIN}.
+     */
+    public List<RelationMetadata> getJoinFetchRelations() {
+        return joinFetchRelations;
+    }
+
+    /**
+     * The {@code @ManyToOne} relation of this entity pointing at {@code targetClass}, or null.
+     */
+    public RelationMetadata getManyToOne(Class<?> targetClass) {
+        for (RelationMetadata relation : manyToOneRelations) {
+            if (relation.getTargetClass().equals(targetClass)) {
+                return relation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The relation (either side) of this entity that references {@code targetClass}, or null.
+     */
+    public RelationMetadata getRelation(Class<?> targetClass) {
+        RelationMetadata relation = getManyToOne(targetClass);
+        if (relation != null) {
+            return relation;
+        }
+        for (RelationMetadata oneToMany : oneToManyRelations) {
+            if (oneToMany.getTargetClass().equals(targetClass)) {
+                return oneToMany;
+            }
+        }
+        return null;
+    }
+
+    public T newInstance() {
+        if (instantiator == null) {
+            throw new RuntimeException("No default constructor found in class " + entityClass.getSimpleName());
+        }
+        return instantiator.get();
+    }
+
+    /**
+     * A {@code Supplier} spun by {@code LambdaMetafactory} around the no-arg constructor, so creating an
+     * instance costs a plain constructor call rather than {@code Constructor.newInstance}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> instantiator(Class<T> entityClass) {
+        try {
+            MethodHandles.Lookup lookup = FieldAccessor.lookupFor(entityClass);
+            MethodHandle constructor = lookup.findConstructor(entityClass, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                    constructor, MethodType.methodType(entityClass));
+            return (Supplier<T>) site.getTarget().invokeExact();
+        } catch (NoSuchMethodException e) {
+            // Only needed when rows are mapped into this class
+            return null;
+        } catch (Throwable e) {
+            throw new RuntimeException("Cannot create instantiator for " + entityClass.getSimpleName(), e);
+        }
+    }
+
+    public static Object convertKey(Object value, Class<?> type) {
+        if (value instanceof Number number && !type.isInstance(value)) {
+            if (type == Integer.class || type == int.class) {
+                return number.intValue();
+            } else if (type == Long.class || type == long.class) {
+                return number.longValue();
+            } else if (type == Short.class || type == short.class) {
+                return number.shortValue();
+            }
+        }
+        return value;
+    }
+
+    private static String columnName(Field field) {
+        Column column = field.getAnnotation(Column.class);
+        if (column != null && !column.name().isEmpty()) {
+            return column.name();
+        }
+        return field.getName();
+    }
+
+    private static String joinColumnName(Field field, String declared, Class<?> keyOwner) {
+        JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+        if (joinColumn != null && !joinColumn.name().isEmpty()) {
+            return joinColumn.name();
+        }
+        if (!declared.isEmpty()) {
+            return declared;
+        }
+        // Default to the primary key column name of the referenced side
+        for (Field candidate : keyOwner.getDeclaredFields()) {
+            if (candidate.isAnnotationPresent(Id.class)) {
+                return columnName(candidate);
+            }
+        }
+        throw new RuntimeException("Foreign key not found in " + field.getDeclaringClass().getSimpleName());
+    }
+
+    private static Class<?> elementType(Field field) {
+        if (field.getGenericType() instanceof ParameterizedType genericType) {
+            return (Class<?>) genericType.getActualTypeArguments()[0];
+        }
+        return field.getType();
+    }
+}
@@ -0,0 +1,65 @@
+package org.group05.com.metadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes one entity field through method handles resolved once. {@link #getSetter()} is typed on
+ * the field, so primitives can be stored without boxing.
+ */
+public final class FieldAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final MethodHandle typedSetter;
+
+    FieldAccessor(Field field) {
+        this.field = field;
+        try {
+            MethodHandles.Lookup lookup = lookupFor(field.getDeclaringClass());
+            MethodHandle rawGetter = lookup.unreflectGetter(field);
+            MethodHandle rawSetter = lookup.unreflectSetter(field);
+            this.getter = rawGetter.asType(GETTER_TYPE);
+            this.setter = rawSetter.asType(SETTER_TYPE);
+            this.typedSetter = rawSetter.asType(MethodType.methodType(void.class, Object.class, field.getType()));
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access field " + field.getName(), e);
+        }
+    }
+
+    static MethodHandles.Lookup lookupFor(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Object get(Object entity) {
+        try {
+            return (Object) getter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw new RuntimeException("Error getting field value", e);
+        }
+    }
+
+    public void set(Object entity, Object value) {
+        try {
+            setter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Error setting field value", e);
+        }
+    }
+
+    /**
+     * Setter of type {@code (Object, <field type>)void}.
+     */
+    public MethodHandle getSetter() {
+        return typedSetter;
+    }
+}
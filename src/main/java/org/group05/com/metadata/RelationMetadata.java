@@ -0,0 +1,99 @@
+package org.group05.com.metadata;
+
+import org.group05.com.annotations.FetchType;
+
+import java.lang.reflect.Field;
+
+/**
+ * A {@code @ManyToOne} or {@code @OneToMany} field of an entity. The join column is in the owning table for
+ * a {@code @ManyToOne}, and in the target table for a {@code @OneToMany}.
+ */
+public final class RelationMetadata {
+    public enum Kind {
+        MANY_TO_ONE,
+        ONE_TO_MANY
+    }
+
+    private final Field field;
+    private final FieldAccessor accessor;
+    private final Kind kind;
+    private final Class<?> targetClass;
+    private final String joinColumn;
+    private final boolean cascadeAll;
+    private final FetchType fetchType;
+    private final int index;
+
+    RelationMetadata(Field field, Kind kind, Class<?> targetClass, String joinColumn, boolean cascadeAll,
+                     FetchType fetchType, int index) {
+        this.field = field;
+        this.accessor = new FieldAccessor(field);
+        this.kind = kind;
+        this.targetClass = targetClass;
+        this.joinColumn = joinColumn;
+        this.cascadeAll = cascadeAll;
+        this.fetchType = fetchType;
+        this.index = index;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getFieldName() {
+        return field.getName();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isManyToOne() {
+        return kind == Kind.MANY_TO_ONE;
+    }
+
+    public boolean isOneToMany() {
+        return kind == Kind.ONE_TO_MANY;
+    }
+
+    /**
+     * The referenced entity class (the element type for a {@code @OneToMany} list).
+     */
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    public String getJoinColumn() {
+        return joinColumn;
+    }
+
+    public boolean isCascadeAll() {
+        return cascadeAll;
+    }
+
+    public FetchType getFetchType() {
+        return fetchType;
+    }
+
+    public boolean isLazy() {
+        return fetchType == FetchType.LAZY;
+    }
+
+    /**
+     * Position of this relation in the {@code @ManyToOne} or {@code @OneToMany} list of its entity.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public Object get(Object entity) {
+        return accessor.get(entity);
+    }
+
+    public void set(Object entity, Object value) {
+        accessor.set(entity, value);
+    }
+}
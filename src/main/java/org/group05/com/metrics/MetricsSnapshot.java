@@ -0,0 +1,27 @@
+package org.group05.com.metrics;
+
+import java.util.Map;
+
+/**
+ * The metrics of every repository method and SQL statement at one point in time, keyed by
+ * {@code Interface.method} and by SQL text respectively.
+ *
+ * @param statementsPrepared  statements prepared on a connection, i.e. not found in a statement cache
+ * @param statementCacheHits  statements reused from a statement cache
+ * @param identityMapHits     entities found already loaded in an entity manager's identity map
+ * @param identityMapMisses   entities read from a row or the second-level cache instead
+ */
+public record MetricsSnapshot(Map<String, OperationStatistics> repositoryMethods,
+                              Map<String, OperationStatistics> statements,
+                              long statementsPrepared, long statementCacheHits,
+                              long identityMapHits, long identityMapMisses) {
+    public double statementCacheHitRatio() {
+        long requests = statementsPrepared + statementCacheHits;
+        return requests == 0 ? 0 : (double) statementCacheHits / requests;
+    }
+
+    public double identityMapHitRatio() {
+        long requests = identityMapHits + identityMapMisses;
+        return requests == 0 ? 0 : (double) identityMapHits / requests;
+    }
+}
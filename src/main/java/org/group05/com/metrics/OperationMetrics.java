@@ -0,0 +1,48 @@
+package org.group05.com.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and latency histogram of one repository method or SQL statement.
+ */
+final class OperationMetrics {
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param rows the rows returned or changed, or -1 when unknown
+     */
+    void record(long elapsedNanos, long rows, boolean failed) {
+        latency.record(elapsedNanos);
+        if (failed) {
+            errors.increment();
+        }
+        if (rows > 0) {
+            this.rows.add(rows);
+        }
+    }
+
+    OperationStatistics snapshot() {
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        return new OperationStatistics(name, snapshot.getCount(), errors.sum(), rows.sum(),
+                snapshot.getMean() / NANOS_PER_MILLI,
+                snapshot.getPercentile(50) / NANOS_PER_MILLI,
+                snapshot.getPercentile(90) / NANOS_PER_MILLI,
+                snapshot.getPercentile(99) / NANOS_PER_MILLI,
+                snapshot.getMax() / NANOS_PER_MILLI);
+    }
+
+    void reset() {
+        latency.reset();
+        errors.reset();
+        rows.reset();
+    }
+}
@@ -0,0 +1,14 @@
+package org.group05.com.metrics;
+
+/**
+ * The calls of one repository method or SQL statement since the metrics were last reset. Durations are in
+ * milliseconds; the percentiles are accurate to about 6%.
+ *
+ * @param rows the rows returned or changed, not counting calls whose row count is unknown (streams)
+ */
+public record OperationStatistics(String name, long calls, long errors, long rows, double meanMillis,
+                                  double p50Millis, double p90Millis, double p99Millis, double maxMillis) {
+    public double errorRatio() {
+        return calls == 0 ? 0 : (double) errors / calls;
+    }
+}
@@ -0,0 +1,215 @@
+package org.group05.com.metrics;
+
+import org.group05.com.ConfigurationManager;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free call counts, errors, latency histograms and row counts per repository method and SQL statement,
+ * published over JMX as {@value #OBJECT_NAME}. Statements beyond {@code metrics.maxStatements} distinct SQL
+ * texts are counted together under {@value #OTHER_STATEMENTS}.
+ */
+public final class OrmMetrics implements OrmMetricsMXBean {
+    public static final String OBJECT_NAME = "org.group05.com:type=OrmMetrics";
+    public static final String OTHER_STATEMENTS = "(other)";
+
+    private static volatile OrmMetrics defaultMetrics;
+
+    private final boolean enabled;
+    private final int maxStatements;
+    private final Map<String, OperationMetrics> repositoryMethods = new ConcurrentHashMap<>();
+    private final Map<String, OperationMetrics> statements = new ConcurrentHashMap<>();
+    private final OperationMetrics otherStatements = new OperationMetrics(OTHER_STATEMENTS);
+    private final LongAdder statementsPrepared = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder identityMapHits = new LongAdder();
+    private final LongAdder identityMapMisses = new LongAdder();
+
+    /**
+     * @param enabled       when false, nothing is recorded
+     * @param maxStatements the number of distinct SQL statements tracked one by one
+     */
+    public OrmMetrics(boolean enabled, int maxStatements) {
+        this.enabled = enabled;
+        this.maxStatements = Math.max(0, maxStatements);
+    }
+
+    /**
+     * The metrics configured in {@code application.properties}, created and registered with the platform
+     * MBean server on first use.
+     */
+    public static OrmMetrics getDefault() {
+        OrmMetrics metrics = defaultMetrics;
+        if (metrics == null) {
+            synchronized (OrmMetrics.class) {
+                metrics = defaultMetrics;
+                if (metrics == null) {
+                    ConfigurationManager configuration = ConfigurationManager.getInstance();
+                    boolean enabled = Boolean.parseBoolean(configuration.getProperty("metrics.enabled", "true").trim());
+                    metrics = new OrmMetrics(enabled, configuration.getIntProperty("metrics.maxStatements", 1000));
+                    if (enabled && Boolean.parseBoolean(configuration.getProperty("metrics.jmx.enabled", "true").trim())) {
+                        register(metrics);
+                    }
+                    defaultMetrics = metrics;
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Replaces the metrics recorded by the entity managers and repositories created afterwards.
+     */
+    public static void setDefault(OrmMetrics metrics) {
+        defaultMetrics = metrics;
+    }
+
+    /**
+     * Registers {@code metrics} as {@value #OBJECT_NAME}, replacing whatever was registered under that name.
+     */
+    public static void register(OrmMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            throw new RuntimeException("Error registering the ORM metrics MBean", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records one call of a repository method, named {@code Interface.method}.
+     *
+     * @param rows the rows it returned, or -1 when unknown
+     */
+    public void recordRepositoryMethod(String name, long elapsedNanos, long rows, boolean failed) {
+        if (enabled) {
+            repositoryMethods.computeIfAbsent(name, OperationMetrics::new).record(elapsedNanos, rows, failed);
+        }
+    }
+
+    /**
+     * Records one execution of {@code sql}.
+     *
+     * @param rows the rows read or changed, or -1 when unknown
+     */
+    public void recordStatement(String sql, long elapsedNanos, long rows, boolean failed) {
+        if (enabled) {
+            statement(sql).record(elapsedNanos, rows, failed);
+        }
+    }
+
+    public void statementPrepared() {
+        if (enabled) {
+            statementsPrepared.increment();
+        }
+    }
+
+    public void statementCacheHit() {
+        if (enabled) {
+            statementCacheHits.increment();
+        }
+    }
+
+    public void identityMapLookup(boolean hit) {
+        if (enabled) {
+            (hit ? identityMapHits : identityMapMisses).increment();
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(getRepositoryMethods(), getStatements(), statementsPrepared.sum(),
+                statementCacheHits.sum(), identityMapHits.sum(), identityMapMisses.sum());
+    }
+
+    @Override
+    public Map<String, OperationStatistics> getRepositoryMethods() {
+        return snapshot(repositoryMethods);
+    }
+
+    @Override
+    public Map<String, OperationStatistics> getStatements() {
+        Map<String, OperationStatistics> snapshot = snapshot(statements);
+        OperationStatistics other = otherStatements.snapshot();
+        if (other.calls() > 0) {
+            snapshot.put(OTHER_STATEMENTS, other);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public long getStatementsPrepared() {
+        return statementsPrepared.sum();
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    @Override
+    public double getStatementCacheHitRatio() {
+        long hits = statementCacheHits.sum();
+        long requests = hits + statementsPrepared.sum();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public long getIdentityMapHits() {
+        return identityMapHits.sum();
+    }
+
+    @Override
+    public long getIdentityMapMisses() {
+        return identityMapMisses.sum();
+    }
+
+    @Override
+    public double getIdentityMapHitRatio() {
+        long hits = identityMapHits.sum();
+        long requests = hits + identityMapMisses.sum();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public void reset() {
+        repositoryMethods.values().forEach(OperationMetrics::reset);
+        statements.values().forEach(OperationMetrics::reset);
+        otherStatements.reset();
+        statementsPrepared.reset();
+        statementCacheHits.reset();
+        identityMapHits.reset();
+        identityMapMisses.reset();
+    }
+
+    private OperationMetrics statement(String sql) {
+        OperationMetrics metrics = statements.get(sql);
+        if (metrics == null) {
+            if (statements.size() >= maxStatements) {
+                return otherStatements;
+            }
+            metrics = statements.computeIfAbsent(sql, OperationMetrics::new);
+        }
+        return metrics;
+    }
+
+    private static Map<String, OperationStatistics> snapshot(Map<String, OperationMetrics> metrics) {
+        Map<String, OperationStatistics> snapshot = new TreeMap<>();
+        metrics.forEach((name, operation) -> snapshot.put(name, operation.snapshot()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,30 @@
+package org.group05.com.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link OrmMetrics}, registered as {@value OrmMetrics#OBJECT_NAME}. The maps appear as
+ * tables with one row per repository method or SQL statement.
+ */
+public interface OrmMetricsMXBean {
+    Map<String, OperationStatistics> getRepositoryMethods();
+
+    Map<String, OperationStatistics> getStatements();
+
+    long getStatementsPrepared();
+
+    long getStatementCacheHits();
+
+    double getStatementCacheHitRatio();
+
+    long getIdentityMapHits();
+
+    long getIdentityMapMisses();
+
+    double getIdentityMapHitRatio();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
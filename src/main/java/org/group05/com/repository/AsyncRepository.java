@@ -0,0 +1,33 @@
+package org.group05.com.repository;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Non-blocking counterpart of {@link IRepository}. Every call runs on a virtual thread with an entity manager
+ * of its own, outside the caller's transaction and unit of work, and returns detached entities; when no
+ * connection can be obtained, the future fails with the {@link java.sql.SQLException}.
+ */
+public interface AsyncRepository<U> {
+    CompletableFuture<U> find(Object id);
+    CompletableFuture<List<U>> find(String column, String value);
+    CompletableFuture<U> insert(U entity);
+    CompletableFuture<List<U>> insertAll(Collection<U> entities);
+    CompletableFuture<U> upsert(U entity);
+    CompletableFuture<List<U>> upsertAll(Collection<U> entities);
+    CompletableFuture<Long> bulkLoad(Stream<U> entities);
+    CompletableFuture<Long> bulkLoad(Iterator<U> entities);
+    CompletableFuture<U> update(U entity);
+    CompletableFuture<Integer> delete(U entity);
+    CompletableFuture<List<?>> executeQuery(Method method, String query, Object... params);
+
+    /**
+     * Runs {@code work} against a repository of a fresh entity manager, which is closed afterwards.
+     */
+    <R> CompletableFuture<R> submit(Function<IRepository<U>, R> work);
+}
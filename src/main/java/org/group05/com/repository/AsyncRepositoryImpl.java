@@ -0,0 +1,104 @@
+package org.group05.com.repository;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.EntityManagerFactory;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public class AsyncRepositoryImpl<U> implements AsyncRepository<U> {
+    private final EntityManagerFactory entityManagerFactory;
+    private final Class<U> entityClass;
+    private final Executor executor;
+    private final UnaryOperator<IRepository<U>> decorator;
+
+    public AsyncRepositoryImpl(EntityManagerFactory entityManagerFactory, Class<U> entityClass, Executor executor) {
+        this(entityManagerFactory, entityClass, executor, UnaryOperator.identity());
+    }
+
+    /**
+     * @param decorator wraps the repository of every call, e.g. in a {@code RepositoryLoggingProxy}
+     */
+    public AsyncRepositoryImpl(EntityManagerFactory entityManagerFactory, Class<U> entityClass, Executor executor,
+                               UnaryOperator<IRepository<U>> decorator) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityClass = entityClass;
+        this.executor = executor;
+        this.decorator = decorator;
+    }
+
+    @Override
+    public CompletableFuture<U> find(Object id) {
+        return submit(repository -> repository.find(id));
+    }
+
+    @Override
+    public CompletableFuture<List<U>> find(String column, String value) {
+        return submit(repository -> repository.find(column, value));
+    }
+
+    @Override
+    public CompletableFuture<U> insert(U entity) {
+        return submit(repository -> repository.insert(entity));
+    }
+
+    @Override
+    public CompletableFuture<List<U>> insertAll(Collection<U> entities) {
+        return submit(repository -> repository.insertAll(entities));
+    }
+
+    @Override
+    public CompletableFuture<U> upsert(U entity) {
+        return submit(repository -> repository.upsert(entity));
+    }
+
+    @Override
+    public CompletableFuture<List<U>> upsertAll(Collection<U> entities) {
+        return submit(repository -> repository.upsertAll(entities));
+    }
+
+    @Override
+    public CompletableFuture<Long> bulkLoad(Stream<U> entities) {
+        return submit(repository -> repository.bulkLoad(entities));
+    }
+
+    @Override
+    public CompletableFuture<Long> bulkLoad(Iterator<U> entities) {
+        return submit(repository -> repository.bulkLoad(entities));
+    }
+
+    @Override
+    public CompletableFuture<U> update(U entity) {
+        return submit(repository -> repository.update(entity));
+    }
+
+    @Override
+    public CompletableFuture<Integer> delete(U entity) {
+        return submit(repository -> repository.delete(entity));
+    }
+
+    @Override
+    public CompletableFuture<List<?>> executeQuery(Method method, String query, Object... params) {
+        return submit(repository -> repository.executeQuery(method, query, params));
+    }
+
+    @Override
+    public <R> CompletableFuture<R> submit(Function<IRepository<U>, R> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (EntityManager entityManager = entityManagerFactory.openEntityManager()) {
+                return work.apply(decorator.apply(entityManager.createRepo(entityClass)));
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
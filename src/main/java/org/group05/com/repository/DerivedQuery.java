@@ -0,0 +1,192 @@
+package org.group05.com.repository;
+
+import org.group05.com.metadata.ColumnMetadata;
+import org.group05.com.metadata.EntityMetadata;
+import org.group05.com.metadata.RelationMetadata;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates the SQL of query methods from their names, e.g.
+ * {@code List<Employee> findByFirstNameAndHireDateAfter(String firstName, Date date)} becomes
+ * {@code SELECT * FROM employees WHERE first_name = ? AND hire_date > ?}. The supported operators are listed
+ * in {@link Operator}; a trailing {@link PageRequest} argument limits the result to one page.
+ */
+final class DerivedQuery {
+    private static final Pattern NAME = Pattern.compile("^(find|stream|count)(?:All)?By(.+)$");
+    private static final Pattern CONNECTOR = Pattern.compile("(?<=[a-z0-9])(And|Or)(?=[A-Z])");
+    private static final Pattern ORDER_SEPARATOR = Pattern.compile("(?<=Asc|Desc)(?=[A-Z])");
+
+    /**
+     * Operators by suffix, longest first so that e.g. {@code LessThanEqual} is not read as {@code LessThan}.
+     */
+    private enum Operator {
+        GREATER_THAN_EQUAL("GreaterThanEqual", " >= ?", 1),
+        LESS_THAN_EQUAL("LessThanEqual", " <= ?", 1),
+        GREATER_THAN("GreaterThan", " > ?", 1),
+        LESS_THAN("LessThan", " < ?", 1),
+        IS_NOT_NULL("IsNotNull", " IS NOT NULL", 0),
+        NOT_NULL("NotNull", " IS NOT NULL", 0),
+        IS_NULL("IsNull", " IS NULL", 0),
+        NULL("Null", " IS NULL", 0),
+        BETWEEN("Between", " BETWEEN ? AND ?", 2),
+        AFTER("After", " > ?", 1),
+        BEFORE("Before", " < ?", 1),
+        NOT_LIKE("NotLike", " NOT LIKE ?", 1),
+        LIKE("Like", " LIKE ?", 1),
+        CONTAINING("Containing", " LIKE ?", 1),
+        STARTING_WITH("StartingWith", " LIKE ?", 1),
+        ENDING_WITH("EndingWith", " LIKE ?", 1),
+        NOT("Not", " <> ?", 1),
+        EQUALS("Equals", " = ?", 1),
+        IS("Is", " = ?", 1),
+        NONE("", " = ?", 1);
+
+        private final String suffix;
+        private final String sql;
+        private final int arguments;
+
+        Operator(String suffix, String sql, int arguments) {
+            this.suffix = suffix;
+            this.sql = sql;
+            this.arguments = arguments;
+        }
+    }
+
+    private DerivedQuery() {
+    }
+
+    /**
+     * The plan of a derived query method, or null when the method name is not one.
+     *
+     * @throws IllegalArgumentException when the name refers to an unknown field or its arguments do not
+     *                                  match its conditions
+     */
+    static QueryPlan compile(Method method, Class<?> entityClass) {
+        Matcher name = NAME.matcher(method.getName());
+        if (!name.matches()) {
+            return null;
+        }
+        EntityMetadata<?> metadata = EntityMetadata.of(entityClass);
+        boolean count = name.group(1).equals("count");
+
+        String criteria = name.group(2);
+        String orderBy = null;
+        int orderIndex = criteria.indexOf("OrderBy");
+        if (orderIndex >= 0) {
+            orderBy = criteria.substring(orderIndex + "OrderBy".length());
+            criteria = criteria.substring(0, orderIndex);
+        }
+
+        StringBuilder sql = new StringBuilder(count ? "SELECT COUNT(*) FROM " : "SELECT * FROM ")
+                .append(metadata.getTableName());
+        List<Integer> indexes = new ArrayList<>();
+        List<UnaryOperator<Object>> binders = new ArrayList<>();
+        if (!criteria.isEmpty()) {
+            sql.append(" WHERE ");
+            Matcher connector = CONNECTOR.matcher(criteria);
+            int start = 0;
+            while (connector.find()) {
+                condition(method, metadata, criteria.substring(start, connector.start()), sql, indexes, binders);
+                sql.append(connector.group(1).equals("And") ? " AND " : " OR ");
+                start = connector.end();
+            }
+            condition(method, metadata, criteria.substring(start), sql, indexes, binders);
+        }
+        int parameterCount = QueryPlan.bindableParameterCount(method);
+        if (indexes.size() != parameterCount) {
+            throw new IllegalArgumentException("Method " + method.getName() + " takes " + parameterCount
+                    + " arguments but its name declares " + indexes.size());
+        }
+        if (orderBy != null) {
+            sql.append(" ORDER BY ").append(orderBy(method, metadata, orderBy));
+        }
+
+        int[] argumentIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+        return QueryPlan.of(method, entityClass, sql.toString(), argumentIndexes, binders);
+    }
+
+    private static void condition(Method method, EntityMetadata<?> metadata, String condition, StringBuilder sql,
+                                  List<Integer> indexes, List<UnaryOperator<Object>> binders) {
+        // A field named like an operator, e.g. "dateAfter", is compared for equality unless "date" is a field too
+        Operator operator = Operator.NONE;
+        for (Operator candidate : Operator.values()) {
+            if (!candidate.suffix.isEmpty() && condition.endsWith(candidate.suffix)
+                    && condition.length() > candidate.suffix.length()
+                    && isProperty(metadata, condition.substring(0, condition.length() - candidate.suffix.length()))) {
+                operator = candidate;
+                break;
+            }
+        }
+        String property = condition.substring(0, condition.length() - operator.suffix.length());
+        sql.append(column(method, metadata, property)).append(operator.sql);
+
+        UnaryOperator<Object> binder = binder(method, metadata, property, indexes.size());
+        UnaryOperator<Object> pattern = switch (operator) {
+            case CONTAINING -> value -> value == null ? null : "%" + value + "%";
+            case STARTING_WITH -> value -> value == null ? null : value + "%";
+            case ENDING_WITH -> value -> value == null ? null : "%" + value;
+            default -> null;
+        };
+        for (int i = 0; i < operator.arguments; i++) {
+            indexes.add(indexes.size());
+            binders.add(pattern == null ? binder : value -> pattern.apply(binder.apply(value)));
+        }
+    }
+
+    private static boolean isProperty(EntityMetadata<?> metadata, String property) {
+        String fieldName = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+        RelationMetadata relation = metadata.getRelationByField(fieldName);
+        return metadata.getColumnByField(fieldName) != null || relation != null && relation.isManyToOne();
+    }
+
+    private static String column(Method method, EntityMetadata<?> metadata, String property) {
+        String fieldName = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+        ColumnMetadata column = metadata.getColumnByField(fieldName);
+        if (column != null) {
+            return column.getName();
+        }
+        RelationMetadata relation = metadata.getRelationByField(fieldName);
+        if (relation != null && relation.isManyToOne()) {
+            return relation.getJoinColumn();
+        }
+        throw new IllegalArgumentException("Method " + method.getName() + " refers to " + property
+                + ", which is not a column of " + metadata.getEntityClass().getSimpleName());
+    }
+
+    /**
+     * Binds the argument at {@code index}: a {@code @ManyToOne} field accepts the parent entity and binds its key.
+     */
+    private static UnaryOperator<Object> binder(Method method, EntityMetadata<?> metadata, String property, int index) {
+        if (index >= QueryPlan.bindableParameterCount(method)) {
+            // Reported once every condition is parsed
+            return UnaryOperator.identity();
+        }
+        String fieldName = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+        RelationMetadata relation = metadata.getRelationByField(fieldName);
+        if (relation != null && relation.isManyToOne() && relation.getTargetClass().isAssignableFrom(method.getParameterTypes()[index])) {
+            EntityMetadata<?> target = EntityMetadata.of(relation.getTargetClass());
+            return value -> value == null ? null : target.getIdValue(value);
+        }
+        return QueryPlan.binder(method.getParameterTypes()[index]);
+    }
+
+    private static String orderBy(Method method, EntityMetadata<?> metadata, String orderBy) {
+        StringJoiner columns = new StringJoiner(", ");
+        for (String order : ORDER_SEPARATOR.split(orderBy)) {
+            if (order.endsWith("Desc")) {
+                columns.add(column(method, metadata, order.substring(0, order.length() - 4)) + " DESC");
+            } else {
+                String property = order.endsWith("Asc") ? order.substring(0, order.length() - 3) : order;
+                columns.add(column(method, metadata, property));
+            }
+        }
+        return columns.toString();
+    }
+}
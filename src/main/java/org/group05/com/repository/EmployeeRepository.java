@@ -3,11 +3,21 @@ package org.group05.com.repository;
 import org.group05.com.annotations.Query;
 import org.group05.com.entity.Employee;
 
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface EmployeeRepository extends IRepository<Employee>{
+    record HiresPerYear(int hireYear, long hires) {
+    }
+
     @Query("SELECT YEAR(hire_date) FROM employees GROUP BY YEAR(hire_date) HAVING COUNT(*) >= 2")
     List<Object[]> groupBy();
+    @Query("SELECT YEAR(hire_date) AS hire_year, COUNT(*) AS hires FROM employees GROUP BY YEAR(hire_date) ORDER BY hire_year")
+    List<HiresPerYear> hiresPerYear();
     @Query("SELECT * FROM employees WHERE first_name = ?")
     List<Employee> findByFirstName(String firstName);
+    @Query("SELECT * FROM employees WHERE first_name = ?")
+    CompletableFuture<List<Employee>> findByFirstNameAsync(String firstName);
+    List<Employee> findByFirstNameAndHireDateAfter(String firstName, Date hireDate);
 }
@@ -1,13 +1,39 @@
 package org.group05.com.repository;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IRepository<U> {
+    Class<U> getEntityClass();
     U find(Object id);
     List<U> find(String column, String value);
+    Stream<U> stream();
+    Stream<U> stream(String column, String value);
+    Page<U> findPage(PageRequest request);
+    Page<U> findPage(String column, String value, PageRequest request);
+    Slice<U> findSlice(KeysetRequest request);
+    Slice<U> findSlice(String column, String value, KeysetRequest request);
     U insert(U entity);
+    List<U> insertAll(Collection<U> entities);
+    U upsert(U entity);
+    List<U> upsertAll(Collection<U> entities);
+    /**
+     * Loads the entities with the database's bulk-load protocol and returns the number of rows loaded.
+     * On MySQL it is lower than the number of entities when rows were skipped; see {@link RepositoryImpl#bulkLoad(Iterator)}.
+     */
+    long bulkLoad(Stream<U> entities);
+    long bulkLoad(Iterator<U> entities);
     U update(U entity);
     int delete(U entity);
     List<?>executeQuery(Method method, String query, Object... params);
+    Object execute(QueryPlan plan, Object... args);
+    /**
+     * {@code repository} wrapped in the same decorators as this one; a plain repository returns it as is.
+     */
+    default IRepository<U> decorate(IRepository<U> repository) {
+        return repository;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package org.group05.com.repository;
+
+/**
+ * Keyset pagination: the {@code size} rows following a position in (column, primary key) order, so every
+ * slice costs the same however deep it is. The sort column should be {@code NOT NULL}.
+ */
+public final class KeysetRequest {
+    private final int size;
+    private final String sortColumn;
+    private final boolean descending;
+    private final boolean positioned;
+    private final Object lastValue;
+    private final Object lastId;
+
+    private KeysetRequest(int size, String sortColumn, boolean descending, boolean positioned, Object lastValue, Object lastId) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Slice size must be at least 1: " + size);
+        }
+        this.size = size;
+        this.sortColumn = sortColumn;
+        this.descending = descending;
+        this.positioned = positioned;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    /**
+     * The first {@code size} rows in primary key order.
+     */
+    public static KeysetRequest of(int size) {
+        return new KeysetRequest(size, null, false, false, null, null);
+    }
+
+    /**
+     * The first rows ordered by {@code column} (a column name), then by primary key.
+     */
+    public KeysetRequest sortBy(String column) {
+        return new KeysetRequest(size, column, descending, positioned, lastValue, lastId);
+    }
+
+    public KeysetRequest descending() {
+        return new KeysetRequest(size, sortColumn, true, positioned, lastValue, lastId);
+    }
+
+    /**
+     * The rows after the one with primary key {@code id}, when ordering by primary key.
+     */
+    public KeysetRequest after(Object id) {
+        return after(id, id);
+    }
+
+    /**
+     * The rows after the one whose sort column is {@code value} and primary key is {@code id}.
+     */
+    public KeysetRequest after(Object value, Object id) {
+        return new KeysetRequest(size, sortColumn, descending, true, value, id);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * The column to order by, or null to order by primary key.
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * False for the first slice, which has no row to seek past.
+     */
+    public boolean isPositioned() {
+        return positioned;
+    }
+
+    public Object getLastValue() {
+        return lastValue;
+    }
+
+    public Object getLastId() {
+        return lastId;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetRequest{size=" + size + ", sortColumn=" + sortColumn + ", descending=" + descending
+                + (positioned ? ", after=(" + lastValue + ", " + lastId + ")" : "") + "}";
+    }
+}
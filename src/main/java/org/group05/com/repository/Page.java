@@ -0,0 +1,65 @@
+package org.group05.com.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of an offset-paginated query, with the total number of rows the query matches.
+ */
+public final class Page<T> {
+    private final List<T> content;
+    private final PageRequest request;
+    private final long totalElements;
+
+    public Page(List<T> content, PageRequest request, long totalElements) {
+        this.content = Collections.unmodifiableList(new ArrayList<>(content));
+        this.request = request;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public PageRequest getRequest() {
+        return request;
+    }
+
+    public int getNumber() {
+        return request.getPage();
+    }
+
+    public int getSize() {
+        return request.getSize();
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return (int) ((totalElements + request.getSize() - 1) / request.getSize());
+    }
+
+    public boolean hasNext() {
+        return request.getOffset() + content.size() < totalElements;
+    }
+
+    public boolean hasPrevious() {
+        return request.getPage() > 0;
+    }
+
+    /**
+     * The request of the following page.
+     */
+    public PageRequest next() {
+        return request.next();
+    }
+
+    @Override
+    public String toString() {
+        return "Page{number=" + getNumber() + ", size=" + getSize() + ", totalElements=" + totalElements
+                + ", content=" + content + "}";
+    }
+}
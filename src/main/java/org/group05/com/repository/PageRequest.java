@@ -0,0 +1,75 @@
+package org.group05.com.repository;
+
+/**
+ * Offset pagination: page {@code page} (from 0) of {@code size} rows, ordered by a column and then by the
+ * primary key.
+ */
+public final class PageRequest {
+    private final int page;
+    private final int size;
+    private final String sortColumn;
+    private final boolean descending;
+
+    private PageRequest(int page, int size, String sortColumn, boolean descending) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index must not be negative: " + page);
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1: " + size);
+        }
+        this.page = page;
+        this.size = size;
+        this.sortColumn = sortColumn;
+        this.descending = descending;
+    }
+
+    /**
+     * Page {@code page} (from 0) of {@code size} rows, ordered by primary key.
+     */
+    public static PageRequest of(int page, int size) {
+        return new PageRequest(page, size, null, false);
+    }
+
+    /**
+     * The same page ordered by {@code column} (a column name), then by primary key.
+     */
+    public PageRequest sortBy(String column) {
+        return new PageRequest(page, size, column, descending);
+    }
+
+    public PageRequest descending() {
+        return new PageRequest(page, size, sortColumn, true);
+    }
+
+    public PageRequest next() {
+        return new PageRequest(page + 1, size, sortColumn, descending);
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getOffset() {
+        return (long) page * size;
+    }
+
+    /**
+     * The column to order by, or null to order by primary key.
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{page=" + page + ", size=" + size + ", sortColumn=" + sortColumn + ", descending=" + descending + "}";
+    }
+}
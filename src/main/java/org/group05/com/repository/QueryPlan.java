@@ -0,0 +1,252 @@
+package org.group05.com.repository;
+
+import org.group05.com.annotations.Query;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Immutable execution plan of one query method, compiled from its {@code @Query} annotation or its name: the
+ * SQL, how the arguments are bound, and how the rows are mapped and returned.
+ */
+public final class QueryPlan {
+    /**
+     * How the rows are returned to the caller.
+     */
+    public enum ResultKind {
+        /** A {@code List} (or {@code Collection}, {@code Iterable}) of every row */
+        LIST,
+        /** A {@code Set} of the distinct rows, in query order */
+        SET,
+        /** A lazy {@code Stream} of the rows */
+        STREAM,
+        /** The first row, or null (zero for a primitive, e.g. the {@code long} of a {@code COUNT(*)}) */
+        SINGLE,
+        /** The first row as an {@code Optional} */
+        OPTIONAL,
+        /** The rows of the {@link PageRequest} argument, as a {@link Page} counting every row */
+        PAGE
+    }
+
+    private final String name;
+    private final String sql;
+    private final ResultKind resultKind;
+    private final Class<?> resultClass;
+    private final boolean entityResult;
+    private final boolean async;
+    private final int pageRequestIndex;
+    private final int[] argumentIndexes;
+    private final List<UnaryOperator<Object>> binders;
+
+    QueryPlan(String name, String sql, ResultKind resultKind, Class<?> resultClass, boolean entityResult, boolean async,
+              int pageRequestIndex, int[] argumentIndexes, List<UnaryOperator<Object>> binders) {
+        this.name = name;
+        this.sql = sql;
+        this.resultKind = resultKind;
+        this.resultClass = resultClass;
+        this.entityResult = entityResult;
+        this.async = async;
+        this.pageRequestIndex = pageRequestIndex;
+        this.argumentIndexes = argumentIndexes;
+        this.binders = List.copyOf(binders);
+    }
+
+    /**
+     * Compiles a repository method, or returns null when it is neither annotated with {@code @Query} nor
+     * named like a derived query.
+     *
+     * @param entityClass the entity class of the repository
+     */
+    public static QueryPlan compile(Method method, Class<?> entityClass) {
+        Query query = method.getAnnotation(Query.class);
+        if (query != null) {
+            int count = bindableParameterCount(method);
+            int[] indexes = new int[count];
+            List<UnaryOperator<Object>> binders = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                indexes[i] = i;
+                binders.add(binder(method.getParameterTypes()[i]));
+            }
+            return of(method, entityClass, query.value(), indexes, binders);
+        }
+        return DerivedQuery.compile(method, entityClass);
+    }
+
+    /**
+     * Builds the plan of {@code method} around already generated SQL, deriving the result handling from
+     * the declared return type.
+     */
+    static QueryPlan of(Method method, Class<?> entityClass, String sql, int[] argumentIndexes,
+                        List<UnaryOperator<Object>> binders) {
+        Type type = method.getGenericReturnType();
+        boolean async = method.getReturnType() == CompletableFuture.class;
+        if (async) {
+            type = typeArgument(type);
+        }
+        Class<?> rawType = rawClass(type);
+
+        ResultKind kind;
+        Class<?> resultClass;
+        if (rawType == Page.class) {
+            kind = ResultKind.PAGE;
+            resultClass = rawClass(typeArgument(type));
+        } else if (rawType == Stream.class) {
+            kind = ResultKind.STREAM;
+            resultClass = rawClass(typeArgument(type));
+        } else if (rawType == Optional.class) {
+            kind = ResultKind.OPTIONAL;
+            resultClass = rawClass(typeArgument(type));
+        } else if (rawType == List.class || rawType == Collection.class || rawType == Iterable.class) {
+            kind = ResultKind.LIST;
+            resultClass = rawClass(typeArgument(type));
+        } else if (rawType == Set.class) {
+            kind = ResultKind.SET;
+            resultClass = rawClass(typeArgument(type));
+        } else if (rawType != null && Iterable.class.isAssignableFrom(rawType)) {
+            throw new IllegalArgumentException("Method " + method.getName() + " cannot return " + rawType.getSimpleName()
+                    + "; declare List, Collection, Iterable or Set");
+        } else {
+            kind = ResultKind.SINGLE;
+            resultClass = rawType;
+        }
+        if (resultClass == null) {
+            resultClass = Object[].class;
+        }
+        if (kind == ResultKind.STREAM && async) {
+            throw new IllegalArgumentException("Method " + method.getName() + " cannot return a Stream asynchronously");
+        }
+        int pageRequestIndex = bindableParameterCount(method) < method.getParameterCount() ? method.getParameterCount() - 1 : -1;
+        if (kind == ResultKind.PAGE && pageRequestIndex < 0 || kind == ResultKind.STREAM && pageRequestIndex >= 0) {
+            throw new IllegalArgumentException("Method " + method.getName() + " must take a PageRequest as last argument"
+                    + " if and only if it returns a Page");
+        }
+        return new QueryPlan(method.getDeclaringClass().getSimpleName() + "." + method.getName(), sql, kind,
+                resultClass, entityClass.equals(resultClass), async, pageRequestIndex, argumentIndexes, binders);
+    }
+
+    /**
+     * The number of arguments bound to the query: all of them but a trailing {@link PageRequest}, which
+     * must be the last argument.
+     */
+    static int bindableParameterCount(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == PageRequest.class) {
+                if (i != types.length - 1) {
+                    throw new IllegalArgumentException("The PageRequest of method " + method.getName() + " must be its last argument");
+                }
+                return i;
+            }
+        }
+        return types.length;
+    }
+
+    /**
+     * {@code Interface.method}, for logs.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public ResultKind getResultKind() {
+        return resultKind;
+    }
+
+    /**
+     * What one row is mapped to: the entity class, or a record, DTO or scalar type, or {@code Object[]} for
+     * the raw column values.
+     */
+    public Class<?> getResultClass() {
+        return resultClass;
+    }
+
+    /**
+     * Whether rows are mapped to entities of the repository, rather than read as plain values.
+     */
+    public boolean isEntityResult() {
+        return entityResult;
+    }
+
+    /**
+     * Whether the method returns a {@code CompletableFuture}; the other properties describe its value.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * The index of the {@link PageRequest} argument, or -1 when the query is not paginated.
+     */
+    public int getPageRequestIndex() {
+        return pageRequestIndex;
+    }
+
+    /**
+     * The statement parameters for one call, in placeholder order.
+     */
+    public Object[] bind(Object[] args) {
+        Object[] params = new Object[binders.size()];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = binders.get(i).apply(args[argumentIndexes[i]]);
+        }
+        return params;
+    }
+
+    /**
+     * Adapts the rows read for this plan to the declared return type. Streams are returned as they are.
+     */
+    public Object adapt(List<?> rows) {
+        return switch (resultKind) {
+            case LIST, STREAM, PAGE -> rows;
+            case SET -> new LinkedHashSet<>(rows);
+            case SINGLE -> {
+                Object value = rows.isEmpty() ? null : rows.get(0);
+                // A primitive return type cannot take null
+                yield value == null && resultClass.isPrimitive() ? Array.get(Array.newInstance(resultClass, 1), 0) : value;
+            }
+            case OPTIONAL -> rows.isEmpty() ? Optional.empty() : Optional.ofNullable(rows.get(0));
+        };
+    }
+
+    /**
+     * The binder of one argument: {@code java.util.Date} is not a JDBC type, so it is sent as a timestamp.
+     */
+    static UnaryOperator<Object> binder(Class<?> parameterType) {
+        if (parameterType == java.util.Date.class) {
+            return value -> value == null ? null : new java.sql.Timestamp(((java.util.Date) value).getTime());
+        }
+        return UnaryOperator.identity();
+    }
+
+    private static Type typeArgument(Type type) {
+        if (type instanceof ParameterizedType parameterizedType) {
+            return parameterizedType.getActualTypeArguments()[0];
+        }
+        return null;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> typeClass) {
+            return typeClass;
+        }
+        if (type instanceof ParameterizedType parameterizedType) {
+            return (Class<?>) parameterizedType.getRawType();
+        }
+        return null;
+    }
+}
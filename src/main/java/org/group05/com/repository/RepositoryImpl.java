@@ -1,364 +1,1609 @@
 package org.group05.com.repository;
 
-import org.group05.com.annotations.Id;
-import org.group05.com.annotations.ManyToOne;
-import org.group05.com.annotations.OneToMany;
+import org.group05.com.cache.CacheRegion;
+import org.group05.com.cache.EntityKey;
+import org.group05.com.cache.IdentityMap;
+import org.group05.com.cache.SecondLevelCache;
+import org.group05.com.datasource.CachedStatement;
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.UnitOfWork;
+import org.group05.com.lazy.Lazy;
+import org.group05.com.lazy.LazyList;
+import org.group05.com.logging.SqlLogger;
+import org.group05.com.mapping.EntityRowMapper;
+import org.group05.com.mapping.ProjectionMapper;
+import org.group05.com.mapping.RowMapperFactory;
+import org.group05.com.metadata.ColumnMetadata;
+import org.group05.com.metadata.EntityMetadata;
+import org.group05.com.metadata.RelationMetadata;
+import org.group05.com.metrics.OrmMetrics;
 import org.group05.com.utils.Utils;
 
 import java.lang.reflect.*;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class RepositoryImpl<U> implements IRepository<U> {
+    private static final Map<Method, Class<?>> QUERY_RESULT_CLASSES = new ConcurrentHashMap<>();
+
+    private final EntityManager entityManager;
     private final Connection connection;
     private final Class<U> entityClass;
-    private final Map<String, Object> map = new HashMap<>();
+    private final IdentityMap identityMap;
+    private final UnitOfWork unitOfWork;
+    private final SqlLogger sqlLogger;
+    private final OrmMetrics metrics;
 
-    public RepositoryImpl(Connection connection, Class<U> entityClass) {
-        this.connection = connection;
+    public RepositoryImpl(EntityManager entityManager, Class<U> entityClass) {
+        this.entityManager = entityManager;
+        this.connection = entityManager.getConnection();
         this.entityClass = entityClass;
+        this.identityMap = entityManager.getIdentityMap();
+        this.unitOfWork = entityManager.getUnitOfWork();
+        this.sqlLogger = entityManager.getSqlLogger();
+        this.metrics = entityManager.getMetrics();
+    }
+    @Override
+    public Class<U> getEntityClass() {
+        return entityClass;
     }
+
+    /**
+     * Runs {@code query} with the result class of the plan of {@code method}, compiled on its first call.
+     */
     @Override
     public List<?> executeQuery(Method method, String query, Object... params) {
-        Class<?> typeClass = null;
-        Type genericReturnType = method.getGenericReturnType();
-        if (genericReturnType instanceof ParameterizedType parameterizedType) {
-            Type[] typeArguments = parameterizedType.getActualTypeArguments();
-            for (Type typeArgument : typeArguments) {
-                if (typeArgument instanceof Class) {
-                    typeClass = (Class<?>) typeArgument;
-                }
+        unitOfWork.flush(this);
+        Class<?> resultClass = QUERY_RESULT_CLASSES.computeIfAbsent(method,
+                m -> QueryPlan.of(m, entityClass, query, new int[0], List.of()).getResultClass());
+        return queryRows(query, resultClass, params == null ? new Object[0] : params);
+    }
+
+    /**
+     * Runs a compiled query method. With a {@link PageRequest} argument the query is limited to that page
+     * and, for a {@code Page} result, its rows are counted with {@code SELECT COUNT(*) FROM (query)}.
+     */
+    @Override
+    public Object execute(QueryPlan plan, Object... args) {
+        unitOfWork.flush(this);
+        Object[] params = plan.bind(args == null ? new Object[0] : args);
+        if (plan.getPageRequestIndex() >= 0) {
+            PageRequest request = (PageRequest) args[plan.getPageRequestIndex()];
+            Object[] pageParams = Arrays.copyOf(params, params.length + 2);
+            pageParams[params.length] = request.getSize();
+            pageParams[params.length + 1] = request.getOffset();
+            List<?> rows = queryRows(entityManager.limitSql(plan.getSql(), true), plan.getResultClass(), pageParams);
+            if (plan.getResultKind() != QueryPlan.ResultKind.PAGE) {
+                return plan.adapt(rows);
             }
+            long total = request.getOffset() == 0 && rows.size() < request.getSize() ? rows.size()
+                    : count("SELECT COUNT(*) FROM (" + plan.getSql() + ") paged", params);
+            return new Page<>(rows, request, total);
         }
+        if (plan.getResultKind() == QueryPlan.ResultKind.STREAM) {
+            return streamResults(plan.getSql(), plan.getResultClass(), params);
+        }
+        return plan.adapt(queryRows(plan.getSql(), plan.getResultClass(), params));
+    }
 
-
+    /**
+     * Runs a custom query, mapping its rows to entities of this repository, or else to {@code resultClass}
+     * through a {@link ProjectionMapper}. A read-only query may run on a replica.
+     */
+    private List<?> queryRows(String query, Class<?> resultClass, Object[] params) {
         List<Object> results = new ArrayList<>();
-        try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
-            if (params != null && params.length > 0) {
-                for (int i = 0; i < params.length; i++) {
-                    preparedStatement.setObject(i + 1, params[i]);
-                }
+        LoadContext context = new LoadContext(!entityManager.readsFromReplica(query));
+        try (CachedStatement statement = entityManager.prepareReadStatement(query)) {
+            PreparedStatement preparedStatement = statement.getStatement();
+            for (int i = 0; i < params.length; i++) {
+                preparedStatement.setObject(i + 1, params[i]);
             }
-            System.out.println(preparedStatement);
-
-            ResultSet resultSet = preparedStatement.executeQuery();
-
-            while (resultSet.next()) {
-                if (entityClass.equals(typeClass)){
-                    U entity = entityClass.getDeclaredConstructor().newInstance();
-                    mapResultSetToEntity(resultSet, entity);
-                    results.add(entity);
+            long started = sqlLogger.start();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (entityClass.equals(resultClass)) {
+                    EntityRowMapper<U> mapper = RowMapperFactory.forResultSet(entityClass, resultSet);
+                    while (resultSet.next()) {
+                        results.add(mapResultSetToEntity(resultSet, mapper, context));
+                    }
                 } else {
-                    int columnCount = resultSet.getMetaData().getColumnCount();
-                    Object[] row = new Object[columnCount];
-                    for (int i = 0; i < columnCount; i++) {
-                        row[i] = resultSet.getObject(i + 1);
+                    ProjectionMapper<?> mapper = RowMapperFactory.forProjection(resultClass, resultSet);
+                    while (resultSet.next()) {
+                        results.add(mapper.mapRow(resultSet));
                     }
-                    results.add(row);
                 }
+            } catch (SQLException | RuntimeException e) {
+                failed(query, started);
+                throw e;
             }
+            executed(query, preparedStatement, started, results.size(), 1);
+            resolveAssociations(context);
         } catch (Exception e) {
             throw new RuntimeException("Error executing query: " + query, e);
         }
         return results;
     }
 
+    private long count(String query, Object[] params) {
+        List<?> rows = queryRows(query, Long.class, params);
+        return rows.isEmpty() || rows.getFirst() == null ? 0 : (Long) rows.getFirst();
+    }
+
+    private Stream<?> streamResults(String query, Class<?> resultClass, Object[] params) {
+        if (entityClass.equals(resultClass)) {
+            return streamEntities(entityClass, query, false, params);
+        }
+        return streamRows(query, params, resultSet -> RowMapperFactory.forProjection(resultClass, resultSet)::mapRow);
+    }
+
     @Override
     public U find(Object value) {
+        unitOfWork.flush(this);
         return findEntity(entityClass,value);
     }
 
     @Override
     public List<U> find(String column, String value) {
+        checkFilterColumn(EntityMetadata.of(entityClass), column);
+        unitOfWork.flush(this);
         return findEntity(entityClass,column,value);
     }
 
+    @Override
+    public Stream<U> stream() {
+        unitOfWork.flush(this);
+        return streamEntities(entityClass, selectSql(EntityMetadata.of(entityClass)), true);
+    }
+
+    @Override
+    public Stream<U> stream(String column, String value) {
+        EntityMetadata<U> metadata = EntityMetadata.of(entityClass);
+        checkFilterColumn(metadata, column);
+        unitOfWork.flush(this);
+        String query = SqlTemplates.get(entityManager, metadata, "find", column.toLowerCase(),
+                () -> selectSql(metadata) + " WHERE " + columnReference(metadata, column) + " = ?");
+        return streamEntities(entityClass, query, true, value);
+    }
+
+    @Override
+    public Page<U> findPage(PageRequest request) {
+        return findPage(null, null, request);
+    }
+
+    /**
+     * Reads one page with {@code LIMIT ? OFFSET ?}. The total is counted with a second query, unless the
+     * first page already holds every row.
+     */
+    @Override
+    public Page<U> findPage(String column, String value, PageRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("A PageRequest is required");
+        }
+        unitOfWork.flush(this);
+        EntityMetadata<U> metadata = EntityMetadata.of(entityClass);
+        checkFilterColumn(metadata, column);
+        String sortColumn = request.getSortColumn() == null ? metadata.getIdColumnName() : request.getSortColumn();
+        if (metadata.getColumnByName(sortColumn) == null) {
+            throw new IllegalArgumentException("Cannot sort " + entityClass.getSimpleName() + " by " + sortColumn
+                    + ": it is not a column of the entity");
+        }
+        String where = column == null ? "" : " WHERE " + columnReference(metadata, column) + " = ?";
+        String query = SqlTemplates.get(entityManager, metadata, "page",
+                List.of(column == null ? "" : column.toLowerCase(), sortColumn.toLowerCase(), request.isDescending()),
+                () -> entityManager.limitSql(selectSql(metadata) + where
+                        + orderBySql(metadata, sortColumn, request.isDescending()), true));
+        Object[] params = column == null
+                ? new Object[]{request.getSize(), request.getOffset()}
+                : new Object[]{value, request.getSize(), request.getOffset()};
+        List<U> content = queryEntities(entityClass, query, params);
+
+        long total;
+        if (request.getOffset() == 0 && content.size() < request.getSize()) {
+            total = content.size();
+        } else {
+            String countQuery = SqlTemplates.get(entityManager, metadata, "count", column == null ? "" : column.toLowerCase(),
+                    () -> "SELECT COUNT(*) FROM " + metadata.getTableName()
+                            + (column == null ? "" : " WHERE " + column + " = ?"));
+            total = count(countQuery, column == null ? new Object[0] : new Object[]{value});
+        }
+        return new Page<>(content, request, total);
+    }
+
+    @Override
+    public Slice<U> findSlice(KeysetRequest request) {
+        return findSlice(null, null, request);
+    }
+
+    /**
+     * Reads one slice with {@code WHERE (column, id) > (?, ?) ORDER BY column, id LIMIT ?}, the seek condition
+     * being spelled by the dialect, or just {@code WHERE id > ?} when ordering by primary key. One row more
+     * than the slice size is read to tell whether another slice follows.
+     */
+    @Override
+    public Slice<U> findSlice(String column, String value, KeysetRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("A KeysetRequest is required");
+        }
+        unitOfWork.flush(this);
+        EntityMetadata<U> metadata = EntityMetadata.of(entityClass);
+        checkFilterColumn(metadata, column);
+        String idColumn = metadata.getIdColumnName();
+        String sortColumn = request.getSortColumn() == null ? idColumn : request.getSortColumn();
+        boolean byId = sortColumn.equalsIgnoreCase(idColumn);
+        ColumnMetadata sortMetadata = metadata.getColumnByName(sortColumn);
+        if (sortMetadata == null) {
+            throw new IllegalArgumentException("Cannot sort " + entityClass.getSimpleName() + " by " + sortColumn
+                    + ": it is not a column of the entity");
+        }
+
+        String query = SqlTemplates.get(entityManager, metadata, "seek",
+                List.of(column == null ? "" : column.toLowerCase(), sortColumn.toLowerCase(), request.isDescending(),
+                        request.isPositioned()),
+                () -> {
+                    StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+                    if (column != null) {
+                        conditions.add(columnReference(metadata, column) + " = ?");
+                    }
+                    if (request.isPositioned()) {
+                        conditions.add(byId
+                                ? columnReference(metadata, idColumn) + (request.isDescending() ? " < ?" : " > ?")
+                                : entityManager.seekPredicate(columnReference(metadata, sortColumn),
+                                columnReference(metadata, idColumn), request.isDescending()));
+                    }
+                    return entityManager.limitSql(selectSql(metadata) + conditions
+                            + orderBySql(metadata, sortColumn, request.isDescending()), false);
+                });
+
+        List<Object> params = new ArrayList<>();
+        if (column != null) {
+            params.add(value);
+        }
+        if (request.isPositioned()) {
+            if (byId) {
+                params.add(request.getLastId());
+            } else {
+                params.addAll(Arrays.asList(entityManager.seekParameters(request.getLastValue(), request.getLastId())));
+            }
+        }
+        params.add(request.getSize() + 1);
+        List<U> rows = queryEntities(entityClass, query, params.toArray());
+
+        if (rows.size() <= request.getSize()) {
+            return new Slice<>(rows, null);
+        }
+        List<U> content = rows.subList(0, request.getSize());
+        U last = content.getLast();
+        return new Slice<>(content, request.after(sortMetadata.get(last), metadata.getIdValue(last)));
+    }
+
+    /**
+     * Inserts the entity, or queues it while a unit of work is active; its generated key is then only
+     * set once the unit of work is flushed.
+     */
     @Override
     public U insert(U entity) {
+        if (unitOfWork.isActive()) {
+            unitOfWork.registerNew(entity);
+            return entity;
+        }
         return insertEntity(entity);
     }
 
+    @Override
+    public List<U> insertAll(Collection<U> entities) {
+        List<U> list = new ArrayList<>(entities);
+        if (unitOfWork.isActive()) {
+            list.forEach(unitOfWork::registerNew);
+        } else if (!list.isEmpty()) {
+            insertEntities(list);
+        }
+        return list;
+    }
+
+    /**
+     * Inserts the entity, or updates its row when one with the same primary key exists, without reading it
+     * first. Cascaded parents and children are upserted along with it. See {@link #upsertAll}.
+     */
+    @Override
+    public U upsert(U entity) {
+        upsertEntities(List.of(entity));
+        return entity;
+    }
+
+    /**
+     * Inserts the entities, or updates the rows with their keys, writing only non-null values; entities without
+     * a key are simply inserted. The statements run at once, after the writes queued by the unit of work.
+     */
+    @Override
+    public List<U> upsertAll(Collection<U> entities) {
+        List<U> list = new ArrayList<>(entities);
+        if (!list.isEmpty()) {
+            upsertEntities(list);
+        }
+        return list;
+    }
+
+    /**
+     * See {@link #bulkLoad(Iterator)}. The stream is consumed but not closed.
+     */
+    @Override
+    public long bulkLoad(Stream<U> entities) {
+        return bulkLoad(entities.iterator());
+    }
+
+    /**
+     * Loads the entities with {@code COPY} on PostgreSQL or {@code LOAD DATA LOCAL INFILE} on MySQL, reading them
+     * from the iterator as they are sent. Nothing is cascaded, keys are not read back, and the entities must
+     * either all have a key or none; rows MySQL skips, e.g. duplicate keys, are logged at {@code WARN}.
+     *
+     * @return the number of rows loaded
+     */
+    @Override
+    public long bulkLoad(Iterator<U> entities) {
+        if (!entities.hasNext()) {
+            return 0;
+        }
+        unitOfWork.flush(this);
+        EntityMetadata<U> metadata = EntityMetadata.of(entityClass);
+        U first = entities.next();
+        boolean withId = metadata.hasId() && metadata.getIdValue(first) != null;
+        List<ColumnMetadata> columns = new ArrayList<>();
+        List<String> columnNames = new ArrayList<>();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            if (withId || !column.isId()) {
+                columns.add(column);
+                columnNames.add(column.getName());
+            }
+        }
+        List<RelationMetadata> relations = metadata.getManyToOneRelations();
+        for (RelationMetadata relation : relations) {
+            columnNames.add(relation.getJoinColumn());
+        }
+        String query = SqlTemplates.get(entityManager, metadata, "bulkLoad", withId,
+                () -> entityManager.buildBulkLoadSql(metadata.getTableName(), columnNames));
+
+        Iterator<Object[]> rows = new Iterator<>() {
+            private U next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next != null || entities.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                U entity = next != null ? next : entities.next();
+                next = null;
+                if (metadata.hasId() && (metadata.getIdValue(entity) != null) != withId) {
+                    throw new IllegalArgumentException("Cannot bulk load " + entityClass.getSimpleName()
+                            + " entities with and without a key together");
+                }
+                Object[] row = new Object[columns.size() + relations.size()];
+                for (int i = 0; i < columns.size(); i++) {
+                    row[i] = columns.get(i).get(entity);
+                }
+                for (int i = 0; i < relations.size(); i++) {
+                    Object parent = relations.get(i).get(entity);
+                    row[columns.size() + i] = parent == null ? null : Utils.getPrimaryKeyValue(parent);
+                }
+                return row;
+            }
+        };
+
+        long started = sqlLogger.start();
+        try {
+            long loaded = entityManager.bulkLoad(query, rows);
+            metrics.recordStatement(query, sqlLogger.executed(query, started, loaded), loaded, false);
+            return loaded;
+        } catch (SQLException e) {
+            failed(query, started);
+            throw new RuntimeException("Error while bulk loading entities", e);
+        } finally {
+            // MySQL keeps the rows loaded before a failure
+            invalidate(metadata);
+        }
+    }
+
     @Override
     public U update(U entity) {
-        return updateEntity(entity);
+        if (unitOfWork.isActive()) {
+            unitOfWork.registerDirty(entity);
+        } else {
+            updateEntities(List.of(entity));
+        }
+        return entity;
     }
 
+    /**
+     * Deletes the entity and its cascaded children and returns the number of rows deleted. While a unit
+     * of work is active the delete is queued and 0 is returned.
+     */
     @Override
     public int delete(U entity) {
-        return deleteEntity(entity);
+        if (entity == null) {
+            return 0;
+        }
+        if (unitOfWork.isActive()) {
+            unitOfWork.registerRemoved(entity);
+            return 0;
+        }
+        return deleteEntities(List.of(entity));
+    }
+
+    // Used by the unit of work when it is flushed
+
+    public void writeInserts(List<Object> entities) {
+        insertEntities(entities);
+    }
+
+    public void writeUpdates(List<Object> entities) {
+        updateEntities(entities);
     }
 
+    public void writeDeletes(List<Object> entities) {
+        deleteEntities(entities);
+    }
 
     private <T> T insertEntity(T entity) {
+        insertEntities(List.of(entity));
+        return entity;
+    }
+
+    /**
+     * Inserts the entities and, following {@code cascade = "ALL"}, the related entities that do not exist yet:
+     * one {@code IN} query per table finds those, then each table gets multi-row inserts, parents first.
+     */
+    private void insertEntities(Collection<?> entities) {
         try {
-            String tableName = Utils.getTableName(entity.getClass());
-            StringBuilder query = new StringBuilder("INSERT INTO " + tableName + " (");
-            StringBuilder values = new StringBuilder(" VALUES (");
-            List<Object> params = new ArrayList<>();
-
-            // Insert after the parent entity
-            Map<Field, List<Object>> childEntities = new HashMap<>();
-
-            for (Field field : entity.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                Object val = field.get(entity);
-                if (val == null) {
-                    continue;
-                }
+            Set<Object> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+            roots.addAll(entities);
+            List<Object> graph = new ArrayList<>();
+            List<ChildLink> links = new ArrayList<>();
+            Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Object entity : entities) {
+                collectInserts(entity, graph, links, seen);
+            }
 
-                if (field.isAnnotationPresent(OneToMany.class)){
-                    // If the cascade type is ALL, insert the entities in the list after inserting the parent entity
-                    if (field.getAnnotation(OneToMany.class).cascade().equals("ALL")) {
-                        List<?> entities = (List<?>) val;
-                        for (Object obj : entities) {
-                            if (Utils.getPrimaryKeyValue(obj) == null ||
-                                    findEntity(obj.getClass(), Utils.getPrimaryKeyValue(obj)) == null) {
-                                Field foreignField = Utils.getForeignKeyField(obj.getClass(), entity.getClass());
-                                List<Object> list = childEntities.getOrDefault(foreignField, new ArrayList<>());
-                                list.add(obj);
-                                childEntities.put(foreignField, list);
-                            }
-                        }
-                    }
-                } else if (field.isAnnotationPresent(ManyToOne.class)) {
-                    // If the cascade type is ALL, insert the parent entity (not exists in the database)
-                    if (field.getAnnotation(ManyToOne.class).cascade().equals("ALL")) {
-                        Object foreignKey = Utils.getPrimaryKeyValue(val);
-                        if (findEntity(val.getClass(), foreignKey) == null)
-                            insertEntity(val);
-                    }
+            List<Object> candidates = new ArrayList<>();
+            for (Object entity : graph) {
+                if (!roots.contains(entity)) {
+                    candidates.add(entity);
+                }
+            }
+            Set<Object> existing = findExisting(candidates);
 
-                    String foreignKeyName = Utils.getForeignKeyName(entity.getClass(), val.getClass());
-                    query.append(foreignKeyName).append(", ");
-                    values.append("?, ");
-                    params.add(Utils.getPrimaryKeyValue(val));
-                } else {
-                    query.append(Utils.getColumnName(entity.getClass(), field.getName())).append(", ");
-                    values.append("?, ");
-                    params.add(val);
+            // Children get their parent only when they are new, existing rows are not touched
+            for (ChildLink link : links) {
+                if (!existing.contains(link.child())) {
+                    link.relation().set(link.child(), link.parent());
                 }
             }
 
-            query.delete(query.length() - 2, query.length());
-            values.delete(values.length() - 2, values.length());
-            query.append(")").append(values).append(")");
+            Map<EntityMetadata<?>, List<Object>> byClass = new LinkedHashMap<>();
+            for (Object entity : graph) {
+                if (!existing.contains(entity)) {
+                    byClass.computeIfAbsent(EntityMetadata.of(entity), k -> new ArrayList<>()).add(entity);
+                }
+            }
+            List<EntityMetadata<?>> tables = new ArrayList<>(byClass.keySet());
+            tables.sort(Comparator.comparingInt(EntityMetadata::getDependencyDepth));
+            for (EntityMetadata<?> metadata : tables) {
+                insertShapes(metadata, byClass.get(metadata), false);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while inserting entity", e);
+        }
+    }
 
-            PreparedStatement preparedStatement = connection.prepareStatement
-                    (query.toString(), PreparedStatement.RETURN_GENERATED_KEYS);
+    /**
+     * Upserts the entities and everything they cascade to, table by table, parents first. Unlike an insert,
+     * nothing is read to tell new rows from existing ones: the database decides row by row.
+     */
+    private void upsertEntities(Collection<?> entities) {
+        // Queued writes go first, so that they cannot overwrite what is upserted now
+        unitOfWork.flush(this);
+        try {
+            List<Object> graph = new ArrayList<>();
+            List<ChildLink> links = new ArrayList<>();
+            Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Object entity : entities) {
+                collectInserts(entity, graph, links, seen);
+            }
+            for (ChildLink link : links) {
+                link.relation().set(link.child(), link.parent());
+            }
 
-            for (int i = 0; i < params.size(); i++) {
-                preparedStatement.setObject(i + 1, params.get(i));
+            Map<EntityMetadata<?>, List<Object>> byClass = new LinkedHashMap<>();
+            for (Object entity : graph) {
+                byClass.computeIfAbsent(EntityMetadata.of(entity), k -> new ArrayList<>()).add(entity);
+            }
+            List<EntityMetadata<?>> tables = new ArrayList<>(byClass.keySet());
+            tables.sort(Comparator.comparingInt(EntityMetadata::getDependencyDepth));
+            for (EntityMetadata<?> metadata : tables) {
+                insertShapes(metadata, byClass.get(metadata), true);
             }
-            System.out.println(preparedStatement.toString());
-            int newRow = preparedStatement.executeUpdate();
 
-            if (newRow > 0) {
-                ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    Object key = generatedKeys.getObject(1);
-                    setKeyValue(entity, key);
+            // The snapshot of a tracked entity no longer describes its row, which may hold values it lacks
+            for (Object entity : graph) {
+                EntityMetadata<?> metadata = EntityMetadata.of(entity);
+                Object id = metadata.hasId() ? metadata.getIdValue(entity) : null;
+                if (id != null && identityMap.get(entityKey(metadata, id)) == entity) {
+                    identityMap.put(entityKey(metadata, id), entity, null);
                 }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while upserting entity", e);
+        }
+    }
 
-                for (Field field : childEntities.keySet()) {
-                    List<Object> entities = childEntities.get(field);
-                    for (Object obj : entities) {
-                        field.setAccessible(true);
-                        field.set(obj, entity);
-                        insertEntity(obj);
-                    }
+    /**
+     * A cascaded child found in the list of {@code parent}, and the relation pointing back to the parent.
+     */
+    private record ChildLink(Object child, RelationMetadata relation, Object parent) {
+    }
+
+    /**
+     * Adds the cascaded parents of {@code entity}, the entity itself and then its cascaded children.
+     */
+    private void collectInserts(Object entity, List<Object> graph, List<ChildLink> links, Set<Object> seen) {
+        if (!seen.add(entity)) {
+            return;
+        }
+        EntityMetadata<?> metadata = EntityMetadata.of(entity);
+        for (RelationMetadata relation : metadata.getManyToOneRelations()) {
+            Object parent = relation.isCascadeAll() ? relation.get(entity) : null;
+            if (parent != null) {
+                collectInserts(parent, graph, links, seen);
+            }
+        }
+        graph.add(entity);
+        for (RelationMetadata relation : metadata.getOneToManyRelations()) {
+            if (!relation.isCascadeAll() || !(relation.get(entity) instanceof List<?> children)) {
+                continue;
+            }
+            // A lazy list that was never read cannot hold anything new
+            if (children instanceof LazyList<?> lazyList && !lazyList.isLoaded()) {
+                continue;
+            }
+            for (Object child : children) {
+                RelationMetadata foreignRelation = EntityMetadata.of(child).getManyToOne(metadata.getEntityClass());
+                if (foreignRelation == null) {
+                    throw new RuntimeException("Foreign key not found in " + child.getClass().getSimpleName());
                 }
+                links.add(new ChildLink(child, foreignRelation, entity));
+                collectInserts(child, graph, links, seen);
             }
-            return entity;
-        } catch (Exception e) {
-            throw new RuntimeException("Error while inserting entity", e);
         }
     }
 
-    private <T> T updateEntity(T entity) {
-        try {
-            String tableName = Utils.getTableName(entity.getClass());
-            StringBuilder query = new StringBuilder("UPDATE " + tableName + " SET ");
-            List<Object> params = new ArrayList<>();
-            Object key = Utils.getPrimaryKeyValue(entity);
-
-            for (Field field : entity.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                Object val = field.get(entity);
-                if (val == null) {
-                    continue;
+    /**
+     * The entities whose row already exists, checked with one {@code SELECT id ... IN (...)} per table.
+     */
+    private Set<Object> findExisting(List<Object> entities) throws SQLException {
+        Set<Object> existing = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<EntityMetadata<?>, Map<EntityKey, List<Object>>> unknown = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            EntityMetadata<?> metadata = EntityMetadata.of(entity);
+            Object id = metadata.hasId() ? metadata.getIdValue(entity) : null;
+            if (id == null) {
+                continue;
+            }
+            EntityKey key = entityKey(metadata, id);
+            if (identityMap.get(key) == entity) {
+                existing.add(entity);
+            } else {
+                unknown.computeIfAbsent(metadata, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+            }
+        }
+        for (Map.Entry<EntityMetadata<?>, Map<EntityKey, List<Object>>> table : unknown.entrySet()) {
+            EntityMetadata<?> metadata = table.getKey();
+            List<Object> ids = new ArrayList<>();
+            for (EntityKey key : table.getValue().keySet()) {
+                ids.add(key.id());
+            }
+            String idColumn = metadata.getIdColumnName();
+            forEachInChunk(metadata, "SELECT " + idColumn + " FROM " + metadata.getTableName(), idColumn, ids, preparedStatement -> {
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        existing.addAll(table.getValue().getOrDefault(entityKey(metadata, resultSet.getObject(1)), List.of()));
+                    }
                 }
+            });
+        }
+        return existing;
+    }
 
-                if (field.isAnnotationPresent(OneToMany.class)){
-                } else if (field.isAnnotationPresent(ManyToOne.class)) {
-                    String foreignKeyName = Utils.getForeignKeyName(entity.getClass(), val.getClass());
-                    query.append(foreignKeyName).append(" = ?, ");
-                    params.add(Utils.getPrimaryKeyValue(val));
-                } else {
-                    query.append(Utils.getColumnName(entity.getClass(), field.getName())).append(" = ?, ");
-                    params.add(val);
+    /**
+     * Inserts or upserts entities of one class, grouped by the set of columns they write.
+     */
+    private void insertShapes(EntityMetadata<?> metadata, List<Object> entities, boolean upsert) throws SQLException {
+        List<ColumnMetadata> columns = metadata.getColumns();
+        List<RelationMetadata> relations = metadata.getManyToOneRelations();
+        Map<BitSet, List<Object>> shapes = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            BitSet shape = new BitSet(columns.size() + relations.size());
+            for (ColumnMetadata column : columns) {
+                if (column.get(entity) != null) {
+                    shape.set(column.getIndex());
+                }
+            }
+            for (RelationMetadata relation : relations) {
+                if (relation.get(entity) != null) {
+                    shape.set(columns.size() + relation.getIndex());
                 }
             }
+            shapes.computeIfAbsent(shape, k -> new ArrayList<>()).add(entity);
+        }
+        for (Map.Entry<BitSet, List<Object>> shape : shapes.entrySet()) {
+            insertRows(metadata, shape.getKey(), shape.getValue(), upsert);
+        }
+    }
 
-            query.delete(query.length() - 2, query.length());
-            query.append(" WHERE ").append(Utils.getPrimaryKeyName(entity.getClass())).append(" = ?");
-            params.add(key);
+    /**
+     * @param upsert whether rows whose key exists are updated; rows without a key are always inserted
+     */
+    private void insertRows(EntityMetadata<?> metadata, BitSet shape, List<Object> entities, boolean upsert) throws SQLException {
+        List<ColumnMetadata> columns = new ArrayList<>();
+        List<RelationMetadata> relations = new ArrayList<>();
+        List<String> columnNames = new ArrayList<>();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            if (shape.get(column.getIndex())) {
+                columns.add(column);
+                columnNames.add(column.getName());
+            }
+        }
+        int offset = metadata.getColumns().size();
+        for (RelationMetadata relation : metadata.getManyToOneRelations()) {
+            if (shape.get(offset + relation.getIndex())) {
+                relations.add(relation);
+                columnNames.add(relation.getJoinColumn());
+            }
+        }
+        boolean generatesKey = metadata.hasId() && !shape.get(metadata.getIdColumn().getIndex());
+        boolean upsertRows = upsert && metadata.hasId() && !generatesKey;
+        String operation = upsertRows ? "upsert" : "insert";
+
+        int width = Math.max(1, columnNames.size());
+        int chunkSize = Math.max(1, Math.min(entityManager.getBatchSize(), entityManager.getMaxBindParameters() / width));
+        String idColumn = metadata.hasId() ? metadata.getIdColumnName() : null;
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            List<Object> chunk = entities.subList(from, Math.min(from + chunkSize, entities.size()));
+            int rows = chunk.size();
+            // Only full chunks and single rows are kept, the size of a trailing chunk is rarely seen twice
+            Supplier<String> sql = upsertRows
+                    ? () -> entityManager.buildUpsertSql(metadata.getTableName(), columnNames, idColumn, rows)
+                    : () -> entityManager.buildInsertSql(metadata.getTableName(), columnNames, rows);
+            String query = rows == chunkSize || rows == 1
+                    ? SqlTemplates.get(entityManager, metadata, operation, List.of(shape, rows), sql)
+                    : sql.get();
 
-            PreparedStatement preparedStatement = connection.prepareStatement(query.toString());
-            for (int i = 0; i < params.size(); i++) {
-                preparedStatement.setObject(i + 1, params.get(i));
+            try (CachedStatement statement = upsertRows ? entityManager.prepareStatement(query)
+                    : entityManager.prepareInsertStatement(query, idColumn)) {
+                PreparedStatement preparedStatement = statement.getStatement();
+                int index = 1;
+                for (Object entity : chunk) {
+                    for (ColumnMetadata column : columns) {
+                        preparedStatement.setObject(index++, column.get(entity));
+                    }
+                    for (RelationMetadata relation : relations) {
+                        preparedStatement.setObject(index++, Utils.getPrimaryKeyValue(relation.get(entity)));
+                    }
+                }
+                long started = sqlLogger.start();
+                int inserted;
+                try {
+                    inserted = preparedStatement.executeUpdate();
+                } catch (SQLException e) {
+                    failed(query, started);
+                    throw e;
+                }
+                executed(query, preparedStatement, started, inserted, 1);
+                invalidate(metadata);
+
+                if (generatesKey) {
+                    try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                        for (Object entity : chunk) {
+                            if (!generatedKeys.next()) {
+                                break;
+                            }
+                            metadata.setIdValue(entity, generatedKeys.getObject(1));
+                        }
+                    }
+                }
             }
-            System.out.println(preparedStatement);
-            preparedStatement.executeUpdate();
-            return entity;
-        } catch (Exception e) {
-            throw new RuntimeException("Error while updating entity", e);
         }
     }
 
-    private <T> int deleteEntity(T entity) {
+    /**
+     * Writes the changed columns of each entity. With a snapshot only the values that differ from it are
+     * written, NULLs included; without one (a new or detached instance) every non-null value is. Entities
+     * of the same class changing the same columns share one statement, executed as a JDBC batch.
+     */
+    private void updateEntities(Collection<?> entities) {
         try {
-            if (entity == null) {
-                return 0;
+            Map<EntityMetadata<?>, Map<BitSet, List<Object>>> groups = new LinkedHashMap<>();
+            Map<Object, Object[]> states = new IdentityHashMap<>();
+            for (Object entity : entities) {
+                EntityMetadata<?> metadata = EntityMetadata.of(entity);
+                EntityKey key = EntityKey.of(entity);
+                Object[] state = currentState(metadata, entity);
+                Object[] snapshot = identityMap.getSnapshot(key, entity);
+
+                BitSet shape = new BitSet(state.length);
+                for (int i = 0; i < state.length; i++) {
+                    if (snapshot != null ? !Objects.deepEquals(state[i], snapshot[i]) : state[i] != null) {
+                        shape.set(i);
+                    }
+                }
+                shape.clear(metadata.getIdColumn().getIndex());
+                if (shape.isEmpty()) {
+                    refreshTracked(key, entity, snapshot == null ? state : snapshot);
+                    continue;
+                }
+                states.put(entity, state);
+                groups.computeIfAbsent(metadata, k -> new LinkedHashMap<>())
+                        .computeIfAbsent(shape, k -> new ArrayList<>()).add(entity);
             }
-            int nRows = 0;
-            for (Field field : entity.getClass().getDeclaredFields()) {
-                if (field.isAnnotationPresent(OneToMany.class)
-                        && field.getAnnotation(OneToMany.class).cascade().equals("ALL")){
-                    field.setAccessible(true);
-                    List<?> entities = (List<?>) field.get(entity);
-                    for (Object obj : entities) {
-                        nRows += deleteEntity(obj);
+
+            for (Map.Entry<EntityMetadata<?>, Map<BitSet, List<Object>>> group : groups.entrySet()) {
+                EntityMetadata<?> metadata = group.getKey();
+                for (Map.Entry<BitSet, List<Object>> shapeGroup : group.getValue().entrySet()) {
+                    BitSet shape = shapeGroup.getKey();
+                    String query = SqlTemplates.get(entityManager, metadata, "update", shape, () -> updateSql(metadata, shape));
+                    executeBatch(query, shapeGroup.getValue(), (preparedStatement, entity) -> {
+                        Object[] state = states.get(entity);
+                        int index = 1;
+                        for (int i = shape.nextSetBit(0); i >= 0; i = shape.nextSetBit(i + 1)) {
+                            preparedStatement.setObject(index++, state[i]);
+                        }
+                        preparedStatement.setObject(index, metadata.getIdValue(entity));
+                    });
+                    for (Object entity : shapeGroup.getValue()) {
+                        refreshTracked(EntityKey.of(entity), entity, states.get(entity));
                     }
                 }
+                invalidate(metadata);
             }
-            String tableName = Utils.getTableName(entity.getClass());
-            String primaryKeyName = Utils.getPrimaryKeyName(entity.getClass());
+        } catch (Exception e) {
+            throw new RuntimeException("Error while updating entity", e);
+        }
+    }
 
-            String query = "DELETE FROM " + tableName + " WHERE " + primaryKeyName + " = ?";
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
+    /**
+     * Stores the row just written when {@code entity} is the instance tracked for it. Any other instance may
+     * lack values of the row, so the tracked one is evicted instead and the row is read again when needed.
+     */
+    private void refreshTracked(EntityKey key, Object entity, Object[] state) {
+        if (identityMap.get(key) == entity) {
+            identityMap.put(key, entity, state);
+        } else {
+            identityMap.remove(key);
+        }
+    }
 
-            Object key = Utils.getPrimaryKeyValue(entity);
-            preparedStatement.setObject(1, key);
-            nRows += preparedStatement.executeUpdate();
+    /**
+     * Deletes the entities after their cascaded {@code @OneToMany} children, with one
+     * {@code DELETE ... WHERE column IN (...)} per table, children first.
+     */
+    private int deleteEntities(Collection<?> entities) {
+        try {
+            Map<EntityMetadata<?>, Set<Object>> byClass = new LinkedHashMap<>();
+            for (Object entity : entities) {
+                EntityMetadata<?> metadata = EntityMetadata.of(entity);
+                Object id = metadata.getIdValue(entity);
+                if (id != null) {
+                    byClass.computeIfAbsent(metadata, k -> new LinkedHashSet<>()).add(entityKey(metadata, id).id());
+                }
+            }
+            List<EntityMetadata<?>> tables = new ArrayList<>(byClass.keySet());
+            tables.sort(Comparator.comparingInt(EntityMetadata<?>::getDependencyDepth).reversed());
 
+            int nRows = 0;
+            for (EntityMetadata<?> metadata : tables) {
+                nRows += deleteCascade(metadata, new ArrayList<>(byClass.get(metadata)));
+            }
             return nRows;
         } catch (Exception e) {
             throw new RuntimeException("Error while deleting entity", e);
         }
     }
 
+    /**
+     * Deletes the rows of {@code metadata} with the given keys after the rows of their cascaded children.
+     */
+    private int deleteCascade(EntityMetadata<?> metadata, List<Object> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int[] nRows = {0};
+        for (RelationMetadata relation : metadata.getOneToManyRelations()) {
+            if (!relation.isCascadeAll()) {
+                continue;
+            }
+            EntityMetadata<?> childMetadata = EntityMetadata.of(relation.getTargetClass());
+            String joinColumn = relation.getJoinColumn();
+            boolean hasCascades = childMetadata.getOneToManyRelations().stream().anyMatch(RelationMetadata::isCascadeAll);
+            if (hasCascades) {
+                List<Object> childIds = new ArrayList<>();
+                String idColumn = childMetadata.getIdColumnName();
+                forEachInChunk(childMetadata, "SELECT " + idColumn + " FROM " + childMetadata.getTableName(), joinColumn, ids,
+                        preparedStatement -> {
+                            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                                while (resultSet.next()) {
+                                    childIds.add(resultSet.getObject(1));
+                                }
+                            }
+                        });
+                nRows[0] += deleteCascade(childMetadata, childIds);
+            } else {
+                forEachInChunk(childMetadata, "DELETE FROM " + childMetadata.getTableName(), joinColumn, ids,
+                        preparedStatement -> nRows[0] += preparedStatement.executeUpdate());
+                evictChildren(metadata, childMetadata, joinColumn, ids);
+                invalidate(childMetadata);
+            }
+        }
+
+        String idColumn = metadata.getIdColumnName();
+        forEachInChunk(metadata, "DELETE FROM " + metadata.getTableName(), idColumn, ids,
+                preparedStatement -> nRows[0] += preparedStatement.executeUpdate());
+        for (Object id : ids) {
+            identityMap.remove(entityKey(metadata, id));
+        }
+        invalidate(metadata);
+        return nRows[0];
+    }
+
+    /**
+     * Stops tracking the children deleted by foreign key. They are recognized by their {@code @ManyToOne}
+     * back to the parent; without one, every tracked entity of the child class is dropped.
+     */
+    private void evictChildren(EntityMetadata<?> parentMetadata, EntityMetadata<?> childMetadata, String joinColumn,
+                               List<Object> parentIds) {
+        RelationMetadata backReference = null;
+        for (RelationMetadata relation : childMetadata.getManyToOneRelations()) {
+            if (relation.getJoinColumn().equalsIgnoreCase(joinColumn)) {
+                backReference = relation;
+            }
+        }
+        Set<EntityKey> parents = new HashSet<>();
+        for (Object id : parentIds) {
+            parents.add(entityKey(parentMetadata, id));
+        }
+        RelationMetadata relation = backReference;
+        identityMap.removeIf(childMetadata.getEntityClass(), child -> {
+            if (relation == null) {
+                return true;
+            }
+            Object parent = relation.get(child);
+            return parent != null && parents.contains(EntityKey.of(parent));
+        });
+    }
+
+    /**
+     * Binds the parameters of one row of a batched statement.
+     */
+    @FunctionalInterface
+    private interface BatchBinder {
+        void bind(PreparedStatement preparedStatement, Object entity) throws SQLException;
+    }
+
+    /**
+     * Runs {@code query} once per entity as JDBC batches of at most {@code database.batch.size} rows and
+     * returns the number of rows changed.
+     */
+    private int executeBatch(String query, List<Object> entities, BatchBinder binder) throws SQLException {
+        int nRows = 0;
+        int batchSize = entityManager.getBatchSize();
+        try (CachedStatement statement = entityManager.prepareStatement(query)) {
+            PreparedStatement preparedStatement = statement.getStatement();
+            for (int from = 0; from < entities.size(); from += batchSize) {
+                List<Object> chunk = entities.subList(from, Math.min(from + batchSize, entities.size()));
+                for (Object entity : chunk) {
+                    binder.bind(preparedStatement, entity);
+                    preparedStatement.addBatch();
+                }
+                long started = sqlLogger.start();
+                int chunkRows = 0;
+                try {
+                    for (int count : preparedStatement.executeBatch()) {
+                        chunkRows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                    }
+                } catch (SQLException e) {
+                    failed(query, started);
+                    throw e;
+                }
+                executed(query, preparedStatement, started, chunkRows, chunk.size());
+                nRows += chunkRows;
+            }
+        }
+        return nRows;
+    }
+
     private <T> T findEntity(Class<T> entityClass, Object value) {
         if (value == null)
             return null;
-        String tableName = Utils.getTableName(entityClass);
-        String primaryKeyName = Utils.getPrimaryKeyName(entityClass);
-        String key = tableName + "_" + value;
-        if (map.containsKey(key)) {
-            return (T) map.get(key);
+        EntityMetadata<T> metadata = EntityMetadata.of(entityClass);
+        EntityKey key = entityKey(metadata, value);
+        Object cached = identityMap.get(key);
+        metrics.identityMapLookup(cached != null);
+        if (cached != null) {
+            return Lazy.initialize(entityClass.cast(cached));
         }
 
-        String query = "SELECT * FROM " + tableName + " WHERE " + primaryKeyName + " = ?";
-
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
-            preparedStatement.setObject(1, value);
-            System.out.println(preparedStatement);
-            ResultSet resultSet = preparedStatement.executeQuery();
-            T entity = null;
-            if (resultSet.next()) {
-                entity = entityClass.getDeclaredConstructor().newInstance();
-                mapResultSetToEntity(resultSet, entity);
+        CacheRegion region = cacheRegion(metadata);
+        Object[] state = region == null ? null : region.get(key.id());
+        if (state != null) {
+            try {
+                LoadContext context = new LoadContext();
+                T entity = assemble(metadata, state, context);
+                resolveAssociations(context);
+                return entity;
+            } catch (SQLException e) {
+                e.printStackTrace();
+                throw new RuntimeException("Error while fetching data from the database.");
             }
-            return entity;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Error while fetching data from the database.");
-        } catch (InvocationTargetException | InstantiationException | IllegalAccessException | NoSuchMethodException e) {
-            throw new RuntimeException(e);
         }
+
+        String query = SqlTemplates.get(entityManager, metadata, "find", metadata.getIdColumnName(),
+                () -> selectSql(metadata) + " WHERE " + columnReference(metadata, metadata.getIdColumnName()) + " = ?");
+        List<T> entities = queryEntities(entityClass, query, value);
+        return entities.isEmpty() ? null : entities.getFirst();
     }
 
     private <T> List<T> findEntity(Class<T> entityClass, String column, Object value) {
-        String tableName = Utils.getTableName(entityClass);
-        String query = "SELECT * FROM " + tableName + " WHERE " + column + " = ?";
-        try {
-            PreparedStatement preparedStatement = connection.prepareStatement(query);
-            preparedStatement.setObject(1, value);
-            System.out.println(preparedStatement);
+        EntityMetadata<T> metadata = EntityMetadata.of(entityClass);
+        String query = SqlTemplates.get(entityManager, metadata, "find", column.toLowerCase(),
+                () -> selectSql(metadata) + " WHERE " + columnReference(metadata, column) + " = ?");
+        return queryEntities(entityClass, query, value);
+    }
 
-            ResultSet resultSet = preparedStatement.executeQuery();
+    private <T> List<T> queryEntities(Class<T> entityClass, String query, Object... params) {
+        EntityMetadata<T> metadata = EntityMetadata.of(entityClass);
+        List<RelationMetadata> joins = metadata.getJoinFetchRelations();
+        LoadContext context = new LoadContext(!entityManager.readsFromReplica(query));
+        try (CachedStatement statement = entityManager.prepareReadStatement(query)) {
+            PreparedStatement preparedStatement = statement.getStatement();
+            for (int i = 0; i < params.length; i++) {
+                preparedStatement.setObject(i + 1, params[i]);
+            }
             List<T> entities = new ArrayList<>();
-            while (resultSet.next()) {
-                T entity = entityClass.getDeclaredConstructor().newInstance();
-                mapResultSetToEntity(resultSet, entity);
-                entities.add(entity);
+            long started = sqlLogger.start();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                EntityRowMapper<T> mapper = RowMapperFactory.forResultSet(entityClass, resultSet, joins.isEmpty() ? "" : "t0_");
+                List<EntityRowMapper<?>> joinMappers = new ArrayList<>();
+                for (int i = 0; i < joins.size(); i++) {
+                    joinMappers.add(RowMapperFactory.forResultSet(joins.get(i).getTargetClass(), resultSet, "t" + (i + 1) + "_"));
+                }
+                while (resultSet.next()) {
+                    entities.add(mapResultSetToEntity(resultSet, mapper, context));
+                    // Parents of JOIN relations come from the same row; the identity map deduplicates them
+                    // and association resolution then finds them without another query
+                    for (EntityRowMapper<?> joinMapper : joinMappers) {
+                        if (joinMapper.readId(resultSet) != null) {
+                            mapResultSetToEntity(resultSet, joinMapper, context);
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                failed(query, started);
+                throw e;
             }
+            executed(query, preparedStatement, started, entities.size(), 1);
+            resolveAssociations(context);
             return entities;
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException("Error while fetching data from the database.");
-        } catch (InvocationTargetException | NoSuchMethodException | InstantiationException | IllegalAccessException e) {
-            throw new RuntimeException(e);
         }
     }
 
-    // Helper methods
-    private <T> void mapResultSetToEntity(ResultSet resultSet, T entity) {
+    /**
+     * Streams the entities of a query, mapping each row when the stream asks for it. Associations other than
+     * {@code FetchType.JOIN} are loaded lazily, since MySQL cannot run another query during the stream.
+     *
+     * @param joined whether the query is a {@link #selectSql} with aliased joined columns, rather than a
+     *               plain {@code @Query}
+     */
+    private <T> Stream<T> streamEntities(Class<T> entityClass, String query, boolean joined, Object... params) {
+        EntityMetadata<T> metadata = EntityMetadata.of(entityClass);
+        List<RelationMetadata> joins = joined ? metadata.getJoinFetchRelations() : List.of();
+        LoadContext context = new LoadContext();
+        return streamRows(query, params, resultSet -> {
+            EntityRowMapper<T> mapper = RowMapperFactory.forResultSet(entityClass, resultSet, joins.isEmpty() ? "" : "t0_");
+            List<EntityRowMapper<?>> joinMappers = new ArrayList<>();
+            for (int i = 0; i < joins.size(); i++) {
+                joinMappers.add(RowMapperFactory.forResultSet(joins.get(i).getTargetClass(), resultSet, "t" + (i + 1) + "_"));
+            }
+            return row -> {
+                T entity = mapResultSetToEntity(row, mapper, context);
+                for (EntityRowMapper<?> joinMapper : joinMappers) {
+                    if (joinMapper.readId(row) != null) {
+                        mapResultSetToEntity(row, joinMapper, context);
+                    }
+                }
+                resolveLazily(context);
+                return entity;
+            };
+        });
+    }
+
+    /**
+     * Reads one value from the current row of a result set.
+     */
+    @FunctionalInterface
+    private interface RowReader<T> {
+        T read(ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * Creates the {@link RowReader} for a result set once it is open, e.g. to build its row mapper.
+     */
+    @FunctionalInterface
+    private interface RowReaderFactory<T> {
+        RowReader<T> create(ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * Runs a query as a dialect streaming statement and returns its rows as a lazy stream. The statement is
+     * closed when the stream is closed or fully consumed, so callers should use try-with-resources.
+     */
+    private <T> Stream<T> streamRows(String query, Object[] params, RowReaderFactory<T> readerFactory) {
+        PreparedStatement preparedStatement = null;
         try {
-            Class<?> entityClass = entity.getClass();
-            Object val;
-
-            List<Field> delayFields = new ArrayList<>();
-            for (Field field : entityClass.getDeclaredFields()) {
-                if (field.isAnnotationPresent(ManyToOne.class)) {
-                    delayFields.addFirst(field);continue;
-                } else if (field.isAnnotationPresent(OneToMany.class)) {
-                    delayFields.addLast(field);continue;
-                } else {
-                    String columnName = Utils.getColumnName(entityClass, field.getName());
-                    val = resultSet.getObject(columnName);
+            preparedStatement = entityManager.prepareStreaming(connection, query);
+            metrics.statementPrepared();
+            for (int i = 0; i < params.length; i++) {
+                preparedStatement.setObject(i + 1, params[i]);
+            }
+            long started = sqlLogger.start();
+            ResultSet resultSet;
+            try {
+                resultSet = preparedStatement.executeQuery();
+            } catch (SQLException e) {
+                failed(query, started);
+                throw e;
+            }
+            executed(query, preparedStatement, started, -1, 1);
+            RowReader<T> reader = readerFactory.create(resultSet);
+
+            PreparedStatement statement = preparedStatement;
+            Runnable close = new Runnable() {
+                private boolean closed;
+
+                @Override
+                public void run() {
+                    if (closed) {
+                        return;
+                    }
+                    closed = true;
+                    try {
+                        resultSet.close();
+                        entityManager.closeStreaming(statement);
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error while closing the stream of: " + query, e);
+                    }
                 }
-                field.setAccessible(true);
-                field.set(entity, val);
+            };
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!resultSet.next()) {
+                            close.run();
+                            return false;
+                        }
+                        action.accept(reader.read(resultSet));
+                        return true;
+                    } catch (SQLException e) {
+                        close.run();
+                        throw new RuntimeException("Error while streaming query: " + query, e);
+                    }
+                }
+            };
+            return StreamSupport.stream(rows, false).onClose(close);
+        } catch (SQLException | RuntimeException e) {
+            // Closing also restores what the dialect set up for streaming, such as PostgreSQL's autocommit
+            if (preparedStatement != null) {
+                try {
+                    entityManager.closeStreaming(preparedStatement);
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new RuntimeException("Error executing query: " + query, e);
+        }
+    }
+
+    /**
+     * {@code SELECT * FROM table}, or, when the entity has {@code FetchType.JOIN} relations, a select of the
+     * table aliased {@code t0} left-joined to each parent table {@code t1..tn}, every column aliased
+     * {@code tN_column} so the row mappers of each table can pick their own columns.
+     */
+    private static String selectSql(EntityMetadata<?> metadata) {
+        List<RelationMetadata> joins = metadata.getJoinFetchRelations();
+        if (joins.isEmpty()) {
+            return "SELECT * FROM " + metadata.getTableName();
+        }
+
+        StringJoiner columns = new StringJoiner(", ");
+        Set<String> rootColumns = new LinkedHashSet<>();
+        for (ColumnMetadata column : metadata.getColumns()) {
+            rootColumns.add(column.getName());
+        }
+        for (RelationMetadata relation : metadata.getManyToOneRelations()) {
+            rootColumns.add(relation.getJoinColumn());
+        }
+        for (String column : rootColumns) {
+            columns.add("t0." + column + " AS t0_" + column);
+        }
+
+        StringBuilder from = new StringBuilder(" FROM ").append(metadata.getTableName()).append(" t0");
+        for (int i = 0; i < joins.size(); i++) {
+            String alias = "t" + (i + 1);
+            RelationMetadata relation = joins.get(i);
+            EntityMetadata<?> parentMetadata = EntityMetadata.of(relation.getTargetClass());
+            Set<String> parentColumns = new LinkedHashSet<>();
+            for (ColumnMetadata column : parentMetadata.getColumns()) {
+                parentColumns.add(column.getName());
+            }
+            for (RelationMetadata parentRelation : parentMetadata.getManyToOneRelations()) {
+                parentColumns.add(parentRelation.getJoinColumn());
+            }
+            for (String column : parentColumns) {
+                columns.add(alias + "." + column + " AS " + alias + "_" + column);
             }
-            String key = Utils.getTableName(entityClass) + "_" + Utils.getPrimaryKeyValue(entity);
-            map.put(key, entity);
-            for (Field field : delayFields) {
-                if (field.isAnnotationPresent(ManyToOne.class)) {
-                    Class<?> parentClass = Utils.getFieldType(field);
-                    String foreignKeyName = Utils.getForeignKeyName(entityClass, parentClass);
-                    val = findEntity(parentClass, resultSet.getObject(foreignKeyName));
+            from.append(" LEFT JOIN ").append(parentMetadata.getTableName()).append(" ").append(alias)
+                    .append(" ON t0.").append(relation.getJoinColumn())
+                    .append(" = ").append(alias).append(".").append(parentMetadata.getIdColumnName());
+        }
+        return "SELECT " + columns + from;
+    }
+
+    /**
+     * A column of the entity's table as it must be written in the WHERE clause of {@link #selectSql}.
+     */
+    private static String columnReference(EntityMetadata<?> metadata, String column) {
+        return metadata.getJoinFetchRelations().isEmpty() ? column : "t0." + column;
+    }
+
+    /**
+     * Rejects a filter column that is neither a column nor a join column of the entity, as it is written
+     * into the SQL and into the key of its cached template.
+     */
+    private static void checkFilterColumn(EntityMetadata<?> metadata, String column) {
+        if (column == null || metadata.getColumnByName(column) != null) {
+            return;
+        }
+        for (RelationMetadata relation : metadata.getManyToOneRelations()) {
+            if (relation.getJoinColumn().equalsIgnoreCase(column)) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Cannot filter " + metadata.getEntityClass().getSimpleName() + " by " + column
+                + ": it is not a column of the entity");
+    }
+
+    /**
+     * {@code ORDER BY column, id}, the primary key making the order total when the column has duplicates.
+     */
+    private static String orderBySql(EntityMetadata<?> metadata, String sortColumn, boolean descending) {
+        String direction = descending ? " DESC" : "";
+        String idColumn = metadata.getIdColumnName();
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ").append(columnReference(metadata, sortColumn)).append(direction);
+        if (!sortColumn.equalsIgnoreCase(idColumn)) {
+            orderBy.append(", ").append(columnReference(metadata, idColumn)).append(direction);
+        }
+        return orderBy.toString();
+    }
+
+    /**
+     * {@code UPDATE table SET ... WHERE id = ?} writing the columns and join columns set in {@code shape}.
+     */
+    private static String updateSql(EntityMetadata<?> metadata, BitSet shape) {
+        StringJoiner assignments = new StringJoiner(", ");
+        for (ColumnMetadata column : metadata.getColumns()) {
+            if (shape.get(column.getIndex())) {
+                assignments.add(column.getName() + " = ?");
+            }
+        }
+        int offset = metadata.getColumns().size();
+        for (RelationMetadata relation : metadata.getManyToOneRelations()) {
+            if (shape.get(offset + relation.getIndex())) {
+                assignments.add(relation.getJoinColumn() + " = ?");
+            }
+        }
+        return "UPDATE " + metadata.getTableName() + " SET " + assignments
+                + " WHERE " + metadata.getIdColumnName() + " = ?";
+    }
+
+    /**
+     * {@code statement WHERE column IN (?, ...)} with {@code parameters} placeholders, where the statement
+     * is e.g. {@code SELECT * FROM table} or {@code DELETE FROM table}.
+     */
+    private static String inSql(String statement, String column, int parameters) {
+        StringBuilder query = new StringBuilder(statement).append(" WHERE ").append(column).append(" IN (");
+        for (int i = 0; i < parameters; i++) {
+            query.append(i == 0 ? "?" : ", ?");
+        }
+        return query.append(")").toString();
+    }
+
+    // Helper methods
+
+    /**
+     * An entity whose columns are mapped but whose associations are not resolved yet, together with the
+     * join column values of its {@code @ManyToOne} relations read from its row.
+     */
+    private record PendingEntity(Object entity, EntityMetadata<?> metadata, Object[] foreignKeys) {
+    }
+
+    /**
+     * State shared by all the queries of one load: the entities waiting for their associations, and the
+     * time the load started, which decides whether its rows may still go into the second-level cache.
+     */
+    private static final class LoadContext {
+        private final Deque<PendingEntity> pending = new ArrayDeque<>();
+        private final long startedAt = System.nanoTime();
+        /** False for rows read from a replica, which may lag behind the writes the cache was invalidated for */
+        private final boolean cacheable;
+
+        private LoadContext() {
+            this(true);
+        }
+
+        private LoadContext(boolean cacheable) {
+            this.cacheable = cacheable;
+        }
+    }
+
+    private static EntityKey entityKey(EntityMetadata<?> metadata, Object id) {
+        return EntityKey.of(metadata, id);
+    }
+
+    /**
+     * The second-level cache region of the entity, or null when it is not cached. The cache is bypassed
+     * during a unit of work: it may lag behind the transaction's own writes, and rows read inside an
+     * uncommitted transaction must not be shared with other entity managers.
+     */
+    private CacheRegion cacheRegion(EntityMetadata<?> metadata) {
+        return unitOfWork.isActive() ? null : SecondLevelCache.getInstance().region(metadata);
+    }
+
+    private void invalidate(EntityMetadata<?> metadata) {
+        SecondLevelCache.getInstance().invalidate(metadata.getTableName());
+        unitOfWork.written(metadata.getTableName());
+        entityManager.written();
+    }
+
+    /**
+     * The second-level cache and snapshot form of an entity: its column values followed by its join column values.
+     */
+    private static Object[] disassemble(EntityMetadata<?> metadata, Object entity, Object[] foreignKeys) {
+        List<ColumnMetadata> columns = metadata.getColumns();
+        Object[] state = new Object[columns.size() + foreignKeys.length];
+        for (ColumnMetadata column : columns) {
+            state[column.getIndex()] = column.get(entity);
+        }
+        // Join column values are stored with the type of the parent's key, so they compare equal to it
+        for (RelationMetadata relation : metadata.getManyToOneRelations()) {
+            Object foreignKey = foreignKeys[relation.getIndex()];
+            state[columns.size() + relation.getIndex()] = foreignKey == null ? null
+                    : EntityMetadata.convertKey(foreignKey, EntityMetadata.of(relation.getTargetClass()).getIdColumn().getType());
+        }
+        return state;
+    }
+
+    /**
+     * The state of an entity as {@link #disassemble} lays it out, the join column values taken from the
+     * primary keys of the current parents.
+     */
+    private static Object[] currentState(EntityMetadata<?> metadata, Object entity) {
+        List<RelationMetadata> relations = metadata.getManyToOneRelations();
+        Object[] foreignKeys = new Object[relations.size()];
+        for (RelationMetadata relation : relations) {
+            Object parent = relation.get(entity);
+            foreignKeys[relation.getIndex()] = parent == null ? null : Utils.getPrimaryKeyValue(parent);
+        }
+        return disassemble(metadata, entity, foreignKeys);
+    }
+
+    /**
+     * Builds an entity from its second-level cache form and queues it for association resolution.
+     */
+    private <T> T assemble(EntityMetadata<T> metadata, Object[] state, LoadContext context) {
+        List<ColumnMetadata> columns = metadata.getColumns();
+        EntityKey key = entityKey(metadata, state[metadata.getIdColumn().getIndex()]);
+        T entity = metadata.getEntityClass().cast(identityMap.get(key));
+        if (entity != null && Lazy.isLoaded(entity)) {
+            return entity;
+        }
+        if (entity == null) {
+            entity = metadata.newInstance();
+        }
+        for (ColumnMetadata column : columns) {
+            column.set(entity, state[column.getIndex()]);
+        }
+        identityMap.put(key, entity, state);
+        Lazy.loaded(entity);
+        Object[] foreignKeys = Arrays.copyOfRange(state, columns.size(), state.length);
+        context.pending.add(new PendingEntity(entity, metadata, foreignKeys));
+        return entity;
+    }
+
+    /**
+     * Maps the current row, or returns the instance already loaded for its primary key. Newly mapped
+     * entities are queued in {@code pending} so their associations can be fetched for all rows at once.
+     */
+    private <T> T mapResultSetToEntity(ResultSet resultSet, EntityRowMapper<T> mapper, LoadContext context) {
+        try {
+            EntityMetadata<T> metadata = mapper.getMetadata();
+            Object id = mapper.readId(resultSet);
+            T entity = null;
+            if (id != null) {
+                T existing = metadata.getEntityClass().cast(identityMap.get(entityKey(metadata, id)));
+                if (existing != null && Lazy.isLoaded(existing)) {
+                    metrics.identityMapLookup(true);
+                    return existing;
                 }
-                else {
-                    Class<?> parentClass = Utils.getFieldType(field);
-                    String foreignKeyName = Utils.getForeignKeyName(entityClass, parentClass);
-                    val = findEntity(parentClass, foreignKeyName, Utils.getPrimaryKeyValue(entity));
+                metrics.identityMapLookup(false);
+                entity = existing;
+            }
+
+            if (entity != null) {
+                // An uninitialized lazy reference: load it in place so everyone holding it sees the row
+                mapper.mapRow(resultSet, entity);
+                Lazy.loaded(entity);
+            } else {
+                entity = mapper.mapRow(resultSet);
+            }
+            List<RelationMetadata> relations = metadata.getManyToOneRelations();
+            Object[] foreignKeys = new Object[relations.size()];
+            for (RelationMetadata relation : relations) {
+                foreignKeys[relation.getIndex()] = mapper.readForeignKey(resultSet, relation);
+            }
+            context.pending.add(new PendingEntity(entity, metadata, foreignKeys));
+
+            if (id != null) {
+                // A row missing some columns cannot serve as a snapshot or as a second-level cache entry
+                EntityKey key = entityKey(metadata, id);
+                Object[] state = mapper.isComplete() ? disassemble(metadata, entity, foreignKeys) : null;
+                identityMap.put(key, entity, state);
+                CacheRegion region = cacheRegion(metadata);
+                if (region != null && state != null && context.cacheable) {
+                    region.put(key.id(), state, context.startedAt);
                 }
-                field.setAccessible(true);
-                field.set(entity, val);
             }
+            return entity;
         } catch (Exception e) {
             throw new RuntimeException("Error while mapping result set to entity", e);
         }
     }
 
-    private void setKeyValue(Object entity, Object value) {
-        try {
-            Class<?> entityClass = entity.getClass();
-            for (Field field : entityClass.getDeclaredFields()) {
-                if (field.isAnnotationPresent(Id.class)) {
-                    field.setAccessible(true);
-                    if (field.getType().equals(Integer.class)) {
-                        field.set(entity, ((Number) value).intValue());
-                    } else {
-                        field.set(entity, value);
+    /**
+     * Resolves the associations of every pending entity with one {@code IN} query per relation and chunk
+     * of {@code database.fetch.batchSize} keys, instead of one query per row. Entities loaded on the way
+     * are queued as well, so the whole graph is stitched together breadth first.
+     */
+    private void resolveAssociations(LoadContext context) throws SQLException {
+        Deque<PendingEntity> pending = context.pending;
+        while (!pending.isEmpty()) {
+            Map<EntityMetadata<?>, List<PendingEntity>> byClass = new LinkedHashMap<>();
+            PendingEntity next;
+            while ((next = pending.poll()) != null) {
+                byClass.computeIfAbsent(next.metadata(), k -> new ArrayList<>()).add(next);
+            }
+
+            for (Map.Entry<EntityMetadata<?>, List<PendingEntity>> group : byClass.entrySet()) {
+                EntityMetadata<?> metadata = group.getKey();
+                List<PendingEntity> entities = group.getValue();
+
+                for (RelationMetadata relation : metadata.getManyToOneRelations()) {
+                    EntityMetadata<?> parentMetadata = EntityMetadata.of(relation.getTargetClass());
+                    // Parents are collected locally so an identity map eviction cannot lose one halfway through
+                    Map<EntityKey, Object> parents = new HashMap<>();
+                    Set<Object> missing = new LinkedHashSet<>();
+                    for (PendingEntity entity : entities) {
+                        Object foreignKey = entity.foreignKeys()[relation.getIndex()];
+                        if (foreignKey == null) {
+                            continue;
+                        }
+                        EntityKey key = entityKey(parentMetadata, foreignKey);
+                        Object parent = parents.containsKey(key) ? parents.get(key) : identityMap.get(key);
+                        if (parent != null) {
+                            parents.put(key, parent);
+                        } else {
+                            missing.add(foreignKey);
+                        }
+                    }
+                    if (relation.isLazy()) {
+                        for (Object foreignKey : missing) {
+                            parents.put(entityKey(parentMetadata, foreignKey), createReference(parentMetadata, foreignKey));
+                        }
+                    } else if (!missing.isEmpty()) {
+                        String idColumn = parentMetadata.getIdColumnName();
+                        for (List<Object> loaded : findByColumnIn(parentMetadata, idColumn, missing, context).values()) {
+                            parents.put(EntityKey.of(loaded.getFirst()), loaded.getFirst());
+                        }
+                    }
+                    for (PendingEntity entity : entities) {
+                        Object foreignKey = entity.foreignKeys()[relation.getIndex()];
+                        relation.set(entity.entity(), foreignKey == null ? null : parents.get(entityKey(parentMetadata, foreignKey)));
+                    }
+                }
+
+                for (RelationMetadata relation : metadata.getOneToManyRelations()) {
+                    if (relation.isLazy()) {
+                        for (PendingEntity entity : entities) {
+                            relation.set(entity.entity(), lazyList(relation, metadata.getIdValue(entity.entity())));
+                        }
+                        continue;
+                    }
+                    EntityMetadata<?> childMetadata = EntityMetadata.of(relation.getTargetClass());
+                    Class<?> idType = metadata.getIdColumn().getType();
+                    Set<Object> ids = new LinkedHashSet<>();
+                    for (PendingEntity entity : entities) {
+                        Object id = metadata.getIdValue(entity.entity());
+                        if (id != null) {
+                            ids.add(id);
+                        }
+                    }
+                    Map<Object, List<Object>> children = ids.isEmpty() ? Map.of()
+                            : findByColumnIn(childMetadata, relation.getJoinColumn(), ids, context);
+                    for (PendingEntity entity : entities) {
+                        Object id = metadata.getIdValue(entity.entity());
+                        List<Object> list = id == null ? null : children.get(EntityMetadata.convertKey(id, idType));
+                        relation.set(entity.entity(), list == null ? new ArrayList<>() : list);
                     }
-                    return;
                 }
             }
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Error setting field value", e);
         }
     }
 
+    /**
+     * Gives every pending entity its associations without querying: parents already loaded are used,
+     * every other {@code @ManyToOne} gets a lazy reference and every {@code @OneToMany} a {@link LazyList}.
+     */
+    private void resolveLazily(LoadContext context) {
+        PendingEntity next;
+        while ((next = context.pending.poll()) != null) {
+            for (RelationMetadata relation : next.metadata().getManyToOneRelations()) {
+                Object foreignKey = next.foreignKeys()[relation.getIndex()];
+                Object parent = null;
+                if (foreignKey != null) {
+                    EntityMetadata<?> parentMetadata = EntityMetadata.of(relation.getTargetClass());
+                    parent = identityMap.get(entityKey(parentMetadata, foreignKey));
+                    if (parent == null) {
+                        parent = createReference(parentMetadata, foreignKey);
+                    }
+                }
+                relation.set(next.entity(), parent);
+            }
+            for (RelationMetadata relation : next.metadata().getOneToManyRelations()) {
+                relation.set(next.entity(), lazyList(relation, next.metadata().getIdValue(next.entity())));
+            }
+        }
+    }
+
+    private LazyList<?> lazyList(RelationMetadata relation, Object id) {
+        return new LazyList<>(() -> {
+            unitOfWork.flush(this);
+            return findEntity(relation.getTargetClass(), relation.getJoinColumn(), id);
+        });
+    }
+
+    /**
+     * Creates the value of a lazy {@code @ManyToOne}: an instance holding only the primary key, registered
+     * in the identity map so that loading the row later fills this same instance.
+     */
+    private <T> T createReference(EntityMetadata<T> metadata, Object id) {
+        T reference = metadata.newInstance();
+        metadata.setIdValue(reference, id);
+        identityMap.put(entityKey(metadata, id), reference);
+        Lazy.register(reference, target -> {
+            // Track the reference again in case it was evicted, so the row is loaded into it
+            unitOfWork.flush(this);
+            identityMap.put(entityKey(metadata, id), target);
+            String query = SqlTemplates.get(entityManager, metadata, "reference", null,
+                    () -> "SELECT * FROM " + metadata.getTableName() + " WHERE " + metadata.getIdColumnName() + " = ?");
+            queryEntities(metadata.getEntityClass(), query, id);
+            Lazy.loaded(target);
+        });
+        return reference;
+    }
+
+    /**
+     * Loads the rows whose {@code column} is one of {@code values}, in chunks of the fetch batch size,
+     * and returns them grouped by that column's value.
+     */
+    private Map<Object, List<Object>> findByColumnIn(EntityMetadata<?> metadata, String column, Collection<Object> values,
+                                                     LoadContext context) throws SQLException {
+        Map<Object, List<Object>> grouped = new HashMap<>();
+        List<Object> keys = new ArrayList<>(values);
+        Class<?> keyType = keys.getFirst().getClass();
+
+        CacheRegion region = cacheRegion(metadata);
+        if (region != null && column.equalsIgnoreCase(metadata.getIdColumnName())) {
+            Iterator<Object> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                Object key = iterator.next();
+                Object[] state = region.get(entityKey(metadata, key).id());
+                if (state != null) {
+                    grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(assemble(metadata, state, context));
+                    iterator.remove();
+                }
+            }
+            if (keys.isEmpty()) {
+                return grouped;
+            }
+        }
+        forEachInChunk(metadata, "SELECT * FROM " + metadata.getTableName(), column, keys, preparedStatement -> {
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                EntityRowMapper<?> mapper = RowMapperFactory.forResultSet(metadata.getEntityClass(), resultSet);
+                int columnIndex = resultSet.findColumn(column);
+                while (resultSet.next()) {
+                    Object entity = mapResultSetToEntity(resultSet, mapper, context);
+                    Object key = EntityMetadata.convertKey(resultSet.getObject(columnIndex), keyType);
+                    grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+                }
+            }
+        });
+        return grouped;
+    }
+
+    /**
+     * Runs a statement on a prepared {@code IN (...)} query.
+     */
+    @FunctionalInterface
+    private interface InChunkAction {
+        void execute(PreparedStatement preparedStatement) throws SQLException;
+    }
+
+    /**
+     * Runs {@code statement WHERE column IN (...)} once per chunk of {@code database.fetch.batchSize} values.
+     */
+    private void forEachInChunk(EntityMetadata<?> metadata, String statement, String column, List<Object> values,
+                                InChunkAction action) throws SQLException {
+        int batchSize = entityManager.getFetchBatchSize();
+        for (int from = 0; from < values.size(); from += batchSize) {
+            List<Object> chunk = values.subList(from, Math.min(from + batchSize, values.size()));
+            // Round the list up to a power of two, repeating the last value, so that only a handful of
+            // IN (...) statements exist per column instead of one per number of values
+            int parameters = chunk.size() == 1 ? 1 : Math.min(batchSize, Integer.highestOneBit(chunk.size() - 1) << 1);
+            String query = SqlTemplates.get(entityManager, metadata, "in", List.of(statement, column.toLowerCase(), parameters),
+                    () -> inSql(statement, column, parameters));
+
+            try (CachedStatement cached = entityManager.prepareStatement(query)) {
+                PreparedStatement preparedStatement = cached.getStatement();
+                for (int i = 0; i < parameters; i++) {
+                    preparedStatement.setObject(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                long started = sqlLogger.start();
+                try {
+                    action.execute(preparedStatement);
+                } catch (SQLException | RuntimeException e) {
+                    failed(query, started);
+                    throw e;
+                }
+                executed(query, preparedStatement, started, -1, 1);
+            }
+        }
+    }
+
+    /**
+     * Logs a statement that has run and records it in the metrics.
+     *
+     * @param rows the rows read or changed, or -1 when unknown
+     */
+    private void executed(String query, PreparedStatement preparedStatement, long started, long rows, int batch) {
+        metrics.recordStatement(query, sqlLogger.executed(preparedStatement, started, rows, batch), rows, false);
+    }
+
+    private void failed(String query, long started) {
+        metrics.recordStatement(query, System.nanoTime() - started, -1, true);
+    }
 }
@@ -1,24 +1,175 @@
 package org.group05.com.repository;
 
-import org.group05.com.annotations.Query;
+import org.group05.com.metrics.OrmMetrics;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Dispatches the calls of a repository proxy through invokers compiled once per method, and records each call
+ * in the {@link OrmMetrics} under {@code Interface.method}.
+ */
 public class RepositoryProxyHandler<U> implements InvocationHandler {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    @FunctionalInterface
+    private interface MethodInvoker {
+        Object invoke(Object proxy, Object[] args) throws Throwable;
+    }
+
     private final IRepository<U> repository;
+    private final Supplier<? extends AsyncRepository<?>> asyncRepositoryFactory;
+    private volatile AsyncRepository<?> asyncRepository;
+    private final Class<?> repositoryInterface;
+    private final OrmMetrics metrics = OrmMetrics.getDefault();
+    private final Map<Method, MethodInvoker> invokers = new ConcurrentHashMap<>();
 
     public RepositoryProxyHandler(IRepository<U> repository) {
+        this(null, repository, () -> null);
+    }
+
+    /**
+     * @param asyncRepository runs the query methods returning {@code CompletableFuture}; may be null
+     */
+    public RepositoryProxyHandler(IRepository<U> repository, AsyncRepository<?> asyncRepository) {
+        this(null, repository, () -> asyncRepository);
+    }
+
+    /**
+     * Compiles every method of {@code repositoryInterface} up front, so a malformed query method fails here.
+     *
+     * @param repositoryInterface the proxied interface; when null, methods are compiled on their first call
+     * @param asyncRepositoryFactory creates the repository running the query methods returning
+     *                               {@code CompletableFuture}, on their first call; may return null
+     */
+    public RepositoryProxyHandler(Class<?> repositoryInterface, IRepository<U> repository,
+                                  Supplier<? extends AsyncRepository<?>> asyncRepositoryFactory) {
         this.repository = repository;
+        this.asyncRepositoryFactory = asyncRepositoryFactory;
+        this.repositoryInterface = repositoryInterface;
+        if (repositoryInterface != null) {
+            for (Method method : repositoryInterface.getMethods()) {
+                invokers.put(method, compile(method));
+            }
+        }
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        if (method.isAnnotationPresent(Query.class)) {
-            Query queryAnnotation = method.getAnnotation(Query.class);
-            return repository.executeQuery(method, queryAnnotation.value(), args);
+        MethodInvoker invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = invokers.computeIfAbsent(method, this::compile);
         }
+        return invoker.invoke(proxy, args == null ? NO_ARGS : args);
+    }
 
-        return method.invoke(repository, args);
+    private MethodInvoker compile(Method method) {
+        MethodInvoker invoker = invoker(method);
+        if (!metrics.isEnabled() || method.getDeclaringClass() == Object.class) {
+            return invoker;
+        }
+        String name = (repositoryInterface != null ? repositoryInterface : method.getDeclaringClass()).getSimpleName()
+                + "." + method.getName();
+        return (proxy, args) -> {
+            long started = System.nanoTime();
+            Object result;
+            try {
+                result = invoker.invoke(proxy, args);
+            } catch (Throwable e) {
+                metrics.recordRepositoryMethod(name, System.nanoTime() - started, -1, true);
+                throw e;
+            }
+            if (result instanceof CompletableFuture<?> future) {
+                future.whenComplete((value, error) ->
+                        metrics.recordRepositoryMethod(name, System.nanoTime() - started, rows(value), error != null));
+            } else {
+                metrics.recordRepositoryMethod(name, System.nanoTime() - started, rows(result), false);
+            }
+            return result;
+        };
+    }
+
+    private MethodInvoker invoker(Method method) {
+        QueryPlan plan = QueryPlan.compile(method, repository.getEntityClass());
+        if (plan != null) {
+            if (!plan.isAsync()) {
+                return (proxy, args) -> repository.execute(plan, args);
+            }
+            return (proxy, args) -> {
+                AsyncRepository<?> asyncRepository = asyncRepository();
+                if (asyncRepository == null) {
+                    throw new UnsupportedOperationException("Asynchronous queries need an EntityManager created by an EntityManagerFactory");
+                }
+                return asyncRepository.submit(asyncRepo -> asyncRepo.execute(plan, args));
+            };
+        }
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return (proxy, args) -> proxy == args[0];
+                case "hashCode":
+                    return (proxy, args) -> System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+        }
+        if (method.isDefault()) {
+            return (proxy, args) -> InvocationHandler.invokeDefault(proxy, method, args);
+        }
+        if (!method.getDeclaringClass().isInstance(repository)) {
+            throw new IllegalArgumentException("Method " + method.getName() + " of " + method.getDeclaringClass().getSimpleName()
+                    + " has no @Query and is not a derived query or repository method");
+        }
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method)
+                    .bindTo(repository)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return (proxy, args) -> handle.invokeExact(args);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot access repository method " + method.getName(), e);
+        }
+    }
+
+    private AsyncRepository<?> asyncRepository() {
+        AsyncRepository<?> async = asyncRepository;
+        if (async == null) {
+            // Racing callers may each create one; they are interchangeable
+            async = asyncRepositoryFactory.get();
+            asyncRepository = async;
+        }
+        return async;
+    }
+
+    /**
+     * The rows in a method's result, or -1 for a stream, whose rows are only read later.
+     */
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Page<?> page) {
+            return page.getContent().size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getContent().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream<?>) {
+            return -1;
+        }
+        return result == null ? 0 : 1;
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,11 @@ import org.group05.com.annotations.Query;
 import org.group05.com.entity.Salary;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface SalaryRepository extends IRepository<Salary>{
     @Query("SELECT * FROM salaries")
     List<Salary> findAll();
+    @Query("SELECT * FROM salaries")
+    Stream<Salary> streamAll();
 }
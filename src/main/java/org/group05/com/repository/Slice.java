@@ -0,0 +1,48 @@
+package org.group05.com.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * One slice of a keyset-paginated query. Unlike a {@link Page} it does not count the matching rows; the
+ * query reads one row more than the slice size to tell whether another slice follows.
+ */
+public final class Slice<T> {
+    private final List<T> content;
+    private final KeysetRequest next;
+
+    /**
+     * @param next the request of the following slice, or null when this is the last one
+     */
+    public Slice(List<T> content, KeysetRequest next) {
+        this.content = Collections.unmodifiableList(new ArrayList<>(content));
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * The request of the following slice, positioned after the last row of this one.
+     *
+     * @throws NoSuchElementException when this is the last slice
+     */
+    public KeysetRequest next() {
+        if (next == null) {
+            throw new NoSuchElementException("No slice after the last one");
+        }
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return "Slice{size=" + content.size() + ", hasNext=" + hasNext() + ", content=" + content + "}";
+    }
+}
@@ -0,0 +1,35 @@
+package org.group05.com.repository;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.metadata.EntityMetadata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * SQL generated once per dialect, entity and operation shape, e.g. the {@code UPDATE} of one entity
+ * class setting a given set of columns, and reused by every repository afterwards.
+ */
+final class SqlTemplates {
+    private record Key(Class<?> dialect, Class<?> entityClass, String operation, Object shape) {
+    }
+
+    private static final Map<Key, String> TEMPLATES = new ConcurrentHashMap<>();
+
+    private SqlTemplates() {
+    }
+
+    /**
+     * @param shape whatever besides the operation the SQL depends on; it must not be modified afterwards
+     */
+    static String get(EntityManager entityManager, EntityMetadata<?> metadata, String operation, Object shape,
+                      Supplier<String> builder) {
+        Key key = new Key(entityManager.getClass(), metadata.getEntityClass(), operation, shape);
+        String sql = TEMPLATES.get(key);
+        if (sql == null) {
+            sql = TEMPLATES.computeIfAbsent(key, k -> builder.get());
+        }
+        return sql;
+    }
+}
@@ -1,6 +1,8 @@
 package org.group05.com.utils;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 public class LoggingUtils {
@@ -10,4 +12,12 @@ public class LoggingUtils {
         String timestamp = LocalDateTime.now().format(formatter);
        return "[" + timestamp + "] [" + level.toUpperCase() + "] - " + message;
     }
+
+    /**
+     * The message as logged at {@code timestampMillis}, for messages written out after they were logged.
+     */
+    public static String getLoggingMessage(String message, String level, long timestampMillis) {
+        String timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault()).format(formatter);
+        return "[" + timestamp + "] [" + level.toUpperCase() + "] - " + message;
+    }
 }
@@ -1,6 +1,8 @@
 package org.group05.com.utils;
 
-import org.group05.com.annotations.*;
+import org.group05.com.metadata.ColumnMetadata;
+import org.group05.com.metadata.EntityMetadata;
+import org.group05.com.metadata.RelationMetadata;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
@@ -8,46 +10,27 @@ import java.util.List;
 
 public class Utils {
     public static String getTableName(Class<?> entityClass) {
-        String tableName = entityClass.getAnnotation(Entity.class).tableName();
-        if (tableName.isEmpty()) {
-            tableName = entityClass.getSimpleName().toLowerCase();
-        }
-        return tableName;
+        return EntityMetadata.of(entityClass).getTableName();
     }
 
     public static String getColumnName(Class<?> entityClass, String fieldName) {
-        try {
-            Field field = entityClass.getDeclaredField(fieldName);
-
-            if (field.isAnnotationPresent(Column.class)) {
-                Column column = field.getAnnotation(Column.class);
-                if (!column.name().isEmpty()) {
-                    return column.name();
-                }
-            }
-
-            return field.getName();
-        } catch (NoSuchFieldException e) {
-            throw new RuntimeException("Field '" + fieldName + "' not found in class " + entityClass.getSimpleName(), e);
+        EntityMetadata<?> metadata = EntityMetadata.of(entityClass);
+        ColumnMetadata column = metadata.getColumnByField(fieldName);
+        if (column != null) {
+            return column.getName();
         }
+        if (metadata.getRelationByField(fieldName) != null) {
+            return fieldName;
+        }
+        throw new RuntimeException("Field '" + fieldName + "' not found in class " + entityClass.getSimpleName());
     }
 
     public static String getPrimaryKeyName(Class<?> entityClass) {
-        for (Field field : entityClass.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Id.class)) {
-                return getColumnName(entityClass, field.getName());
-            }
-        }
-        throw new RuntimeException("Primary key not found in class " + entityClass.getSimpleName());
+        return EntityMetadata.of(entityClass).getIdColumnName();
     }
 
     public static Object getPrimaryKeyValue(Object entity) {
-        for (Field field : entity.getClass().getDeclaredFields()) {
-            if (field.isAnnotationPresent(Id.class)) {
-                return getFieldValue(field, entity);
-            }
-        }
-        throw new RuntimeException("Primary key not found in class " + entity.getClass().getSimpleName());
+        return EntityMetadata.of(entity).getIdValue(entity);
     }
 
     public static Object getFieldValue(Field field, Object entity) {
@@ -60,16 +43,11 @@ public class Utils {
     }
 
     public static String getForeignKeyName(Class<?> childClass, Class<?> parentClass) {
-        for (Field field : childClass.getDeclaredFields()) {
-            if (field.isAnnotationPresent(JoinColumn.class)) {
-                JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
-                if (!joinColumn.name().isEmpty() && field.getType().equals(parentClass)) {
-                    return joinColumn.name();
-                }
-                return joinColumn.name();
-            }
+        RelationMetadata relation = EntityMetadata.of(childClass).getRelation(parentClass);
+        if (relation == null) {
+            throw new RuntimeException("Foreign key not found in " + childClass.getSimpleName());
         }
-        throw new RuntimeException("Foreign key not found in " + childClass.getSimpleName());
+        return relation.getJoinColumn();
     }
 
     public static Class<?> getFieldType(Field field) {
@@ -81,14 +59,11 @@ public class Utils {
     }
 
     public static Field getForeignKeyField(Class<?> childClass, Class<?> parentClass) {
-        for (Field field : childClass.getDeclaredFields()) {
-            if (field.isAnnotationPresent(ManyToOne.class)) {
-                if (field.getType().equals(parentClass)) {
-                    return field;
-                }
-            }
+        RelationMetadata relation = EntityMetadata.of(childClass).getManyToOne(parentClass);
+        if (relation == null) {
+            throw new RuntimeException("Foreign key not found in " + childClass.getSimpleName());
         }
-        throw new RuntimeException("Foreign key not found in " + childClass.getSimpleName());
+        return relation.getField();
     }
 
 
@@ -0,0 +1,65 @@
+package org.group05.com.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRegionTest {
+    private static final Object[] ROW = {1, "Lem"};
+
+    @Test
+    void returnsStoredRows() {
+        CacheRegion region = new CacheRegion("authors", 10, 60);
+        assertNull(region.get(1));
+        region.put(1, ROW, System.nanoTime());
+
+        assertSame(ROW, region.get(1));
+        assertEquals(new CacheStatistics(1, 1, 1, 0, 1), region.getStatistics());
+    }
+
+    @Test
+    void expiredRowsAreMisses() {
+        CacheRegion region = new CacheRegion("authors", 10, 0);
+        region.put(1, ROW, System.nanoTime());
+
+        assertNull(region.get(1));
+        assertEquals(new CacheStatistics(0, 1, 1, 1, 0), region.getStatistics());
+    }
+
+    @Test
+    void invalidateDropsEveryRow() {
+        CacheRegion region = new CacheRegion("authors", 10, 60);
+        region.put(1, ROW, System.nanoTime());
+        region.put(2, ROW, System.nanoTime());
+        region.invalidate();
+
+        assertNull(region.get(1));
+        assertEquals(0, region.getStatistics().size());
+    }
+
+    @Test
+    void rowsReadBeforeAnInvalidationAreNotStored() {
+        CacheRegion region = new CacheRegion("authors", 10, 60);
+        long readStartedAt = System.nanoTime();
+        region.invalidate();
+        region.put(1, ROW, readStartedAt);
+
+        assertNull(region.get(1));
+        assertEquals(0, region.getStatistics().puts());
+
+        region.put(1, ROW, System.nanoTime());
+        assertSame(ROW, region.get(1));
+    }
+
+    @Test
+    void fullRegionEvictsToMakeRoom() {
+        CacheRegion region = new CacheRegion("authors", 10, 60);
+        for (int id = 0; id < 25; id++) {
+            region.put(id, ROW, System.nanoTime());
+        }
+
+        assertTrue(region.getStatistics().size() <= 10);
+        assertTrue(region.getStatistics().evictions() >= 15);
+        assertSame(ROW, region.get(24));
+    }
+}
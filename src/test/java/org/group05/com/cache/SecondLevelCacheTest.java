@@ -0,0 +1,68 @@
+package org.group05.com.cache;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.MySQLEntityManager;
+import org.group05.com.example.Author;
+import org.group05.com.example.Book;
+import org.group05.com.example.ExampleDatabase;
+import org.group05.com.repository.IRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecondLevelCacheTest {
+    private final SecondLevelCache cache = SecondLevelCache.getInstance();
+    private CacheStatistics before;
+
+    @BeforeEach
+    void clear() throws Exception {
+        ExampleDatabase.open("cache").close();
+        cache.clear();
+        before = cache.getStatistics(Author.class);
+    }
+
+    @Test
+    void rowsAreSharedBetweenEntityManagers() throws Exception {
+        Author first;
+        try (EntityManager entityManager = open()) {
+            first = entityManager.createRepo(Author.class).find(2);
+        }
+        Author second;
+        try (EntityManager entityManager = open()) {
+            second = entityManager.createRepo(Author.class).find(2);
+        }
+
+        assertNotSame(first, second);
+        assertEquals("Lem", second.getName());
+        CacheStatistics statistics = cache.getStatistics(Author.class);
+        assertEquals(1, statistics.hits() - before.hits());
+        assertEquals(1, statistics.puts() - before.puts());
+    }
+
+    @Test
+    void writesInvalidateTheRegion() throws Exception {
+        try (EntityManager entityManager = open()) {
+            IRepository<Author> authors = entityManager.createRepo(Author.class);
+            Author author = authors.find(2);
+            author.setName("Stanislaw Lem");
+            authors.update(author);
+        }
+        try (EntityManager entityManager = open()) {
+            assertEquals("Stanislaw Lem", entityManager.createRepo(Author.class).find(2).getName());
+        }
+        assertEquals(before.hits(), cache.getStatistics(Author.class).hits());
+    }
+
+    @Test
+    void entitiesWithoutCacheableAreNotCached() throws Exception {
+        try (EntityManager entityManager = open()) {
+            entityManager.createRepo(Book.class).find(1);
+        }
+        assertEquals(0, cache.getStatistics(Book.class).puts());
+    }
+
+    private static EntityManager open() throws Exception {
+        return new MySQLEntityManager(ExampleDatabase.connect("cache"));
+    }
+}
@@ -0,0 +1,63 @@
+package org.group05.com.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledDataSourceTest {
+    private static final String URL = "jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void closedConnectionsGoBackToThePool() throws SQLException {
+        try (PooledDataSource pool = new PooledDataSource(URL, "sa", "")) {
+            Connection connection = pool.getConnection();
+            assertEquals(1, pool.getActiveConnections());
+            connection.close();
+            connection.close();
+
+            assertTrue(connection.isClosed());
+            assertEquals(0, pool.getActiveConnections());
+            assertThrows(SQLException.class, connection::createStatement);
+        }
+    }
+
+    @Test
+    void closeFailsWaitingBorrowersAtOnce() throws SQLException, InterruptedException {
+        PooledDataSource pool = new PooledDataSource(URL, "sa", "");
+        List<Connection> borrowed = new ArrayList<>();
+        for (int i = 0; i < pool.getMaxSize(); i++) {
+            borrowed.add(pool.getConnection());
+        }
+        List<CompletableFuture<Connection>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiters.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.getConnection();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        // Lets the borrowers block on the exhausted pool
+        Thread.sleep(200);
+
+        pool.close();
+        for (CompletableFuture<Connection> waiter : waiters) {
+            CompletionException failure = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> assertThrows(CompletionException.class, waiter::join));
+            assertEquals("Connection pool is closed", failure.getCause().getMessage());
+        }
+        for (Connection connection : borrowed) {
+            connection.close();
+        }
+        assertEquals(0, pool.getTotalConnections());
+    }
+}
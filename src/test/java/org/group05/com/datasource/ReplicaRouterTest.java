@@ -0,0 +1,12 @@
+package org.group05.com.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRouterTest {
+    @Test
+    void separatorsAloneConfigureNoReplica() {
+        assertNull(ReplicaRouter.fromConfiguration());
+    }
+}
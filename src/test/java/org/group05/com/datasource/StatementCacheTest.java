@@ -0,0 +1,97 @@
+package org.group05.com.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCacheTest {
+    private Connection connection;
+
+    @BeforeEach
+    void open() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void returnedStatementsAreReused() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 4);
+        PreparedStatement first;
+        try (CachedStatement statement = cache.prepare("select 1")) {
+            first = statement.getStatement();
+        }
+        assertEquals(1, cache.size());
+
+        try (CachedStatement statement = cache.prepare("select 1")) {
+            assertSame(first, statement.getStatement());
+            assertEquals(0, cache.size());
+        }
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void statementsInUseAreNotSharedBySameSql() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 4);
+        try (CachedStatement outer = cache.prepare("select 1");
+             CachedStatement inner = cache.prepare("select 1")) {
+            assertNotSame(outer.getStatement(), inner.getStatement());
+        }
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void leastRecentlyReturnedStatementIsClosedFirst() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 2);
+        PreparedStatement one = prepareAndReturn(cache, "select 1");
+        PreparedStatement two = prepareAndReturn(cache, "select 2");
+        assertSame(one, prepareAndReturn(cache, "select 1"));
+        PreparedStatement three = prepareAndReturn(cache, "select 3");
+
+        assertEquals(2, cache.size());
+        assertTrue(two.isClosed());
+        assertFalse(one.isClosed());
+        assertFalse(three.isClosed());
+    }
+
+    @Test
+    void sizeZeroClosesEveryStatement() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 0);
+        PreparedStatement statement = prepareAndReturn(cache, "select 1");
+
+        assertTrue(statement.isClosed());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void closeClosesIdleStatementsAndLaterReturns() throws SQLException {
+        StatementCache cache = new StatementCache(connection, 4);
+        PreparedStatement idle = prepareAndReturn(cache, "select 1");
+        CachedStatement inUse = cache.prepare("select 2");
+        cache.close();
+
+        assertTrue(idle.isClosed());
+        assertFalse(inUse.getStatement().isClosed());
+        inUse.close();
+        assertTrue(inUse.getStatement().isClosed());
+        assertThrows(SQLException.class, () -> cache.prepare("select 1"));
+    }
+
+    private static PreparedStatement prepareAndReturn(StatementCache cache, String sql) throws SQLException {
+        try (CachedStatement statement = cache.prepare(sql)) {
+            return statement.getStatement();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.group05.com.entityManager;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkLoadInputStreamTest {
+    @Test
+    void writesTabSeparatedLinesWithNullMarkers() throws IOException {
+        List<Object[]> rows = List.of(new Object[]{1, "Lem", null}, new Object[]{2, "", 3.5});
+
+        assertEquals("1\tLem\t\\N\n2\t\t3.5\n", read(rows));
+    }
+
+    @Test
+    void escapesSeparatorsAndBackslashes() throws IOException {
+        List<Object[]> rows = List.<Object[]>of(new Object[]{"a\tb", "c\nd\re", "C:\\dir", "\\N"});
+
+        assertEquals("a\\tb\tc\\nd\\re\tC:\\\\dir\t\\\\N\n", read(rows));
+    }
+
+    @Test
+    void encodesUtf8() throws IOException {
+        List<Object[]> rows = List.<Object[]>of(new Object[]{"Stanisław Lem", "日本"});
+
+        assertEquals("Stanisław Lem\t日本\n", read(rows));
+    }
+
+    @Test
+    void readsRowsOnlyAsNeeded() throws IOException {
+        AtomicInteger taken = new AtomicInteger();
+        Iterator<Object[]> rows = IntStream.range(0, 100_000)
+                .mapToObj(i -> {
+                    taken.incrementAndGet();
+                    return new Object[]{i, "row " + i};
+                })
+                .iterator();
+        BulkLoadInputStream stream = new BulkLoadInputStream(rows, Object::toString);
+
+        assertEquals('0', stream.read());
+        assertTrue(taken.get() < 1000, String.valueOf(taken.get()));
+        assertEquals(taken.get(), stream.getRowCount());
+
+        byte[] rest = stream.readAllBytes();
+        assertEquals(100_000, stream.getRowCount());
+        assertTrue(new String(rest, StandardCharsets.UTF_8).endsWith("\n99999\trow 99999\n"));
+        assertEquals(-1, stream.read());
+        assertEquals(-1, stream.read(new byte[8], 0, 8));
+    }
+
+    @Test
+    void emptyInputEndsImmediately() throws IOException {
+        BulkLoadInputStream stream = new BulkLoadInputStream(new ArrayList<Object[]>().iterator(), Object::toString);
+
+        assertEquals(0, stream.read(new byte[8], 0, 0));
+        assertEquals(-1, stream.read(new byte[8], 0, 8));
+        assertEquals(0, stream.getRowCount());
+    }
+
+    @Test
+    void formatsValuesForEachDatabase() {
+        EntityManager mysql = new MySQLEntityManager(null);
+        assertEquals("1", mysql.bulkLoadValue(true));
+        assertEquals("0", mysql.bulkLoadValue(false));
+        assertEquals(new Timestamp(0).toString(), mysql.bulkLoadValue(new Date(0)));
+        assertEquals("1970-01-01", mysql.bulkLoadValue(java.sql.Date.valueOf("1970-01-01")));
+        assertThrows(IllegalArgumentException.class, () -> mysql.bulkLoadValue(new byte[]{1}));
+
+        EntityManager postgres = new PostgresSQLEntityManager(null);
+        assertEquals("\\x01ff", postgres.bulkLoadValue(new byte[]{1, (byte) 0xff}));
+    }
+
+    private static String read(List<Object[]> rows) throws IOException {
+        try (InputStream stream = new BulkLoadInputStream(rows.iterator(), Object::toString)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.group05.com.entityManager;
+
+import org.group05.com.example.Book;
+import org.group05.com.example.ExampleDatabase;
+import org.group05.com.repository.IRepository;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresStreamingTest {
+    @Test
+    void cursorOutsideATransactionUsesItsOwnConnection() throws SQLException {
+        ExampleDatabase.open("factory").close();
+        try (EntityManagerFactory factory = new EntityManagerFactory();
+             EntityManager entityManager = new PostgresSQLEntityManager(factory.getConnection(), factory)) {
+            IRepository<Book> books = entityManager.createRepo(Book.class);
+            try (Stream<Book> stream = books.stream()) {
+                Iterator<Book> rows = stream.iterator();
+                assertEquals("Earthsea", rows.next().getTitle());
+
+                assertTrue(entityManager.getConnection().getAutoCommit());
+                books.insert(new Book("Tehanu", null));
+                assertEquals(4, countBooks());
+            }
+        }
+    }
+
+    @Test
+    void bareConnectionStaysInAutocommit() throws SQLException {
+        try (EntityManager entityManager = new PostgresSQLEntityManager(ExampleDatabase.open("bare-stream"))) {
+            IRepository<Book> books = entityManager.createRepo(Book.class);
+            try (Stream<Book> stream = books.stream()) {
+                assertEquals(3, stream.count());
+            }
+            assertTrue(entityManager.getConnection().getAutoCommit());
+        }
+    }
+
+    private static int countBooks() throws SQLException {
+        try (Connection connection = ExampleDatabase.connect("factory");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select count(*) from books")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.group05.com.example;
+
+import org.group05.com.annotations.*;
+
+import java.util.List;
+import java.util.Objects;
+
+@Cacheable(maxSize = 100, ttlSeconds = 60)
+@Entity(tableName = "authors")
+public class Author {
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "name")
+    private String name;
+
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "author_id")
+    private List<Book> books;
+
+    public Author() {
+    }
+
+    public Author(String name) {
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Book> getBooks() {
+        return books;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Author author && Objects.equals(name, author.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(name);
+    }
+}
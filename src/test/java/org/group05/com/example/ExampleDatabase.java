@@ -0,0 +1,38 @@
+package org.group05.com.example;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An in-memory H2 database in MySQL mode holding two authors, three books and their reviews.
+ */
+public final class ExampleDatabase {
+    private ExampleDatabase() {
+    }
+
+    /**
+     * Connects to the named database after (re)creating its tables.
+     */
+    public static Connection open(String name) throws SQLException {
+        Connection connection = connect(name);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            statement.execute("create table authors(id int auto_increment primary key, name varchar(50))");
+            statement.execute("create table books(id int auto_increment primary key, title varchar(50), author_id int)");
+            statement.execute("create table reviews(id int auto_increment primary key, stars int, book_id int)");
+            statement.execute("insert into authors(name) values ('Le Guin'), ('Lem')");
+            statement.execute("insert into books(title, author_id) values ('Earthsea', 1), ('The Dispossessed', 1), ('Solaris', 2)");
+            statement.execute("insert into reviews(stars, book_id) values (5, 1), (4, 1), (5, 3), (3, null)");
+        }
+        return connection;
+    }
+
+    /**
+     * Connects to the named database as it is.
+     */
+    public static Connection connect(String name) throws SQLException {
+        return DriverManager.getConnection("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
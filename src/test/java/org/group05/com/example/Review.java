@@ -0,0 +1,32 @@
+package org.group05.com.example;
+
+import org.group05.com.annotations.*;
+
+@Entity(tableName = "reviews")
+public class Review {
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "stars")
+    private int stars;
+
+    @ManyToOne(fetch = FetchType.JOIN)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    public Review() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public int getStars() {
+        return stars;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+}
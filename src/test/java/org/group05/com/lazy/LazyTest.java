@@ -0,0 +1,102 @@
+package org.group05.com.lazy;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.MySQLEntityManager;
+import org.group05.com.example.Author;
+import org.group05.com.example.Book;
+import org.group05.com.example.ExampleDatabase;
+import org.group05.com.repository.IRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyTest {
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void open() throws Exception {
+        entityManager = new MySQLEntityManager(ExampleDatabase.open("lazy"));
+    }
+
+    @AfterEach
+    void close() {
+        entityManager.close();
+    }
+
+    @Test
+    void referencesAreTrackedByIdentity() {
+        Author reference = new Author("Lem");
+        Author equal = new Author("Lem");
+        AtomicInteger loads = new AtomicInteger();
+        Lazy.register(reference, target -> {
+            loads.incrementAndGet();
+            Lazy.loaded(target);
+        });
+
+        assertFalse(Lazy.isLoaded(reference));
+        assertTrue(Lazy.isLoaded(equal));
+        Lazy.initialize(equal);
+        assertEquals(0, loads.get());
+
+        assertSame(reference, Lazy.initialize(reference));
+        assertEquals(1, loads.get());
+        assertTrue(Lazy.isLoaded(reference));
+        Lazy.initialize(reference);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void nullAndPlainValuesAreLoaded() {
+        assertTrue(Lazy.isLoaded(null));
+        assertTrue(Lazy.isLoaded(new ArrayList<>()));
+        assertNull(Lazy.initialize(null));
+    }
+
+    @Test
+    void lazyListLoadsOnFirstRead() {
+        AtomicInteger loads = new AtomicInteger();
+        LazyList<String> list = new LazyList<>(() -> {
+            loads.incrementAndGet();
+            return List.of("a", "b");
+        });
+
+        assertFalse(Lazy.isLoaded(list));
+        assertEquals(0, loads.get());
+        assertEquals(2, list.size());
+        assertEquals("b", list.get(1));
+        assertTrue(Lazy.isLoaded(list));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void manyToOneIsAReferenceUntilInitialized() {
+        IRepository<Book> books = entityManager.createRepo(Book.class);
+        Book book = books.find(1);
+
+        Author author = book.getAuthor();
+        assertFalse(Lazy.isLoaded(author));
+        assertEquals(1, author.getId());
+        assertNull(author.getName());
+
+        Lazy.initialize(author);
+        assertTrue(Lazy.isLoaded(author));
+        assertEquals("Le Guin", author.getName());
+        assertSame(author, books.find(2).getAuthor());
+    }
+
+    @Test
+    void oneToManyLoadsWhenRead() {
+        Author author = entityManager.createRepo(Author.class).find(1);
+
+        assertFalse(Lazy.isLoaded(author.getBooks()));
+        assertEquals(List.of("Earthsea", "The Dispossessed"),
+                author.getBooks().stream().map(Book::getTitle).toList());
+        assertTrue(Lazy.isLoaded(author.getBooks()));
+    }
+}
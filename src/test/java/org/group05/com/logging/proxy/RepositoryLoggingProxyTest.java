@@ -0,0 +1,32 @@
+package org.group05.com.logging.proxy;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.PostgresSQLEntityManager;
+import org.group05.com.example.Book;
+import org.group05.com.example.ExampleDatabase;
+import org.group05.com.repository.IRepository;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryLoggingProxyTest {
+    @Test
+    void decoratesAnotherRepositoryWithTheSameStrategies() throws SQLException {
+        List<String> outer = new ArrayList<>();
+        List<String> inner = new ArrayList<>();
+        try (EntityManager first = new PostgresSQLEntityManager(ExampleDatabase.open("decorate"));
+             EntityManager second = new PostgresSQLEntityManager(ExampleDatabase.connect("decorate"))) {
+            IRepository<Book> repository = new RepositoryLoggingProxy<>(
+                    new RepositoryLoggingProxy<>(first.createRepo(Book.class), inner::add), outer::add);
+
+            IRepository<Book> decorated = repository.decorate(second.createRepo(Book.class));
+            assertEquals("Solaris", decorated.find(3).getTitle());
+            assertEquals(List.of("Finding entity with id: 3"), outer);
+            assertEquals(List.of("Finding entity with id: 3"), inner);
+        }
+    }
+}
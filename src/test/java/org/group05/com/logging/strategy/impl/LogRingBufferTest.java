@@ -0,0 +1,86 @@
+package org.group05.com.logging.strategy.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRingBufferTest {
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new LogRingBuffer<String>(0).capacity());
+        assertEquals(2, new LogRingBuffer<String>(2).capacity());
+        assertEquals(8, new LogRingBuffer<String>(5).capacity());
+        assertEquals(8, new LogRingBuffer<String>(8).capacity());
+    }
+
+    @Test
+    void itemsComeOutInOrderAcrossLaps() {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(4);
+        assertNull(buffer.poll());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+            assertTrue(buffer.offer(i + 100));
+            assertEquals(2, buffer.size());
+            assertEquals(i, buffer.poll());
+            assertEquals(i + 100, buffer.poll());
+        }
+        assertEquals(0, buffer.size());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void offerFailsWhenFull() {
+        LogRingBuffer<String> buffer = new LogRingBuffer<>(2);
+        assertTrue(buffer.offer("a"));
+        assertTrue(buffer.offer("b"));
+        assertFalse(buffer.offer("c"));
+
+        assertEquals("a", buffer.poll());
+        assertTrue(buffer.offer("c"));
+        assertEquals("b", buffer.poll());
+        assertEquals("c", buffer.poll());
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        LogRingBuffer<Integer> buffer = new LogRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        Set<Integer> received = new HashSet<>();
+        int[] lastOfProducer = new int[producers];
+        Arrays.fill(lastOfProducer, -1);
+        while (received.size() < producers * perProducer) {
+            Integer item = buffer.poll();
+            if (item == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertTrue(received.add(item));
+            // Items of one producer stay in the order they were offered
+            assertTrue(item > lastOfProducer[item / perProducer]);
+            lastOfProducer[item / perProducer] = item;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+    }
+}
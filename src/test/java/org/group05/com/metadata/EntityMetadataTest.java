@@ -0,0 +1,68 @@
+package org.group05.com.metadata;
+
+import org.group05.com.entity.Employee;
+import org.group05.com.entity.Salary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityMetadataTest {
+    @Test
+    void metadataIsBuiltOncePerClass() {
+        assertSame(EntityMetadata.of(Employee.class), EntityMetadata.of(Employee.class));
+        assertSame(EntityMetadata.of(Employee.class), EntityMetadata.of(new Employee()));
+    }
+
+    @Test
+    void readsTableColumnsAndKey() {
+        EntityMetadata<Employee> metadata = EntityMetadata.of(Employee.class);
+        assertEquals("employees", metadata.getTableName());
+        assertEquals("emp_no", metadata.getIdColumnName());
+        assertEquals(List.of("emp_no", "first_name", "last_name", "hire_date"),
+                metadata.getColumns().stream().map(ColumnMetadata::getName).toList());
+        assertSame(metadata.getColumnByName("first_name"), metadata.getColumnByName("FIRST_NAME"));
+        assertNull(metadata.getColumnByName("salary"));
+    }
+
+    @Test
+    void readsRelations() {
+        RelationMetadata employee = EntityMetadata.of(Salary.class).getManyToOneRelations().get(0);
+        assertEquals(Employee.class, employee.getTargetClass());
+        assertEquals("emp_no", employee.getJoinColumn());
+        assertTrue(employee.isCascadeAll());
+
+        RelationMetadata salaries = EntityMetadata.of(Employee.class).getOneToManyRelations().get(0);
+        assertEquals(Salary.class, salaries.getTargetClass());
+        assertFalse(salaries.isLazy());
+    }
+
+    @Test
+    void parentsComeBeforeChildren() {
+        assertEquals(0, EntityMetadata.of(Employee.class).getDependencyDepth());
+        assertEquals(1, EntityMetadata.of(Salary.class).getDependencyDepth());
+    }
+
+    @Test
+    void getsAndSetsValuesThroughAccessors() {
+        EntityMetadata<Employee> metadata = EntityMetadata.of(Employee.class);
+        Employee employee = metadata.newInstance();
+        metadata.setIdValue(employee, 7);
+        metadata.getColumnByName("first_name").set(employee, "Ann");
+        assertEquals(7, employee.getId());
+        assertEquals("Ann", employee.getFirstName());
+    }
+
+    @Test
+    void convertsKeysToTheIdType() {
+        assertEquals(5, EntityMetadata.convertKey(5L, Integer.class));
+        assertEquals(5L, EntityMetadata.convertKey(5, Long.class));
+        assertEquals("x", EntityMetadata.convertKey("x", Integer.class));
+    }
+
+    @Test
+    void rejectsClassesWithoutEntity() {
+        assertThrows(IllegalArgumentException.class, () -> EntityMetadata.of(String.class));
+    }
+}
@@ -0,0 +1,68 @@
+package org.group05.com.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    @Test
+    void smallValuesHaveABucketEach() {
+        for (int value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.bucketIndex(value));
+            assertEquals(value, LatencyHistogram.highestValue(value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndWithinOneSixteenth() {
+        long previousHighest = -1;
+        for (int index = 0; index < LatencyHistogram.bucketIndex((1L << 42) - 1); index++) {
+            long lowest = previousHighest + 1;
+            long highest = LatencyHistogram.highestValue(index);
+            assertEquals(index, LatencyHistogram.bucketIndex(lowest));
+            assertEquals(index, LatencyHistogram.bucketIndex(highest));
+            assertTrue(highest - lowest <= lowest / 16, "bucket " + index);
+            previousHighest = highest;
+        }
+    }
+
+    @Test
+    void percentilesAreRoundedUpToTheirBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50_500_000, snapshot.getMean(), 0.001);
+        assertEquals(100_000_000, snapshot.getMax());
+        long median = snapshot.getPercentile(50);
+        assertTrue(median >= 50_000_000 && median <= 50_000_000 + 50_000_000 / 16, String.valueOf(median));
+        assertEquals(100_000_000, snapshot.getPercentile(100));
+        assertTrue(snapshot.getPercentile(0) >= 1_000_000);
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.getPercentile(50));
+        assertEquals((1L << 42) - 1, snapshot.getMax());
+    }
+
+    @Test
+    void emptyAndResetHistogramsReportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getPercentile(99));
+        assertEquals(0, histogram.snapshot().getMean());
+
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.snapshot().getMax());
+    }
+}
@@ -0,0 +1,60 @@
+package org.group05.com.repository;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.MySQLEntityManager;
+import org.group05.com.example.ExampleDatabase;
+import org.group05.com.example.Review;
+import org.group05.com.lazy.Lazy;
+import org.group05.com.metrics.OrmMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinFetchTest {
+    private OrmMetrics metrics;
+    private EntityManager entityManager;
+    private IRepository<Review> reviews;
+
+    @BeforeEach
+    void open() throws Exception {
+        metrics = new OrmMetrics(true, 100);
+        OrmMetrics.setDefault(metrics);
+        entityManager = new MySQLEntityManager(ExampleDatabase.open("join"));
+        reviews = entityManager.createRepo(Review.class);
+    }
+
+    @AfterEach
+    void close() {
+        entityManager.close();
+        OrmMetrics.setDefault(null);
+    }
+
+    @Test
+    void parentIsReadByTheSameQuery() {
+        Review review = reviews.find(1);
+
+        assertEquals(5, review.getStars());
+        assertEquals("Earthsea", review.getBook().getTitle());
+        assertTrue(Lazy.isLoaded(review.getBook()));
+        assertEquals(1, metrics.getStatements().size());
+        assertTrue(metrics.getStatements().keySet().iterator().next().contains(" LEFT JOIN books "));
+    }
+
+    @Test
+    void rowsSharingAParentShareOneInstance() {
+        List<Review> ofBook = reviews.find("book_id", "1");
+
+        assertEquals(2, ofBook.size());
+        assertSame(ofBook.get(0).getBook(), ofBook.get(1).getBook());
+        assertEquals(1, metrics.getStatements().size());
+    }
+
+    @Test
+    void missingParentIsNull() {
+        assertNull(reviews.find(4).getBook());
+    }
+}
@@ -0,0 +1,47 @@
+package org.group05.com.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetRequestTest {
+    @Test
+    void rejectsInvalidSizes() {
+        assertEquals("Slice size must be at least 1: 0",
+                assertThrows(IllegalArgumentException.class, () -> KeysetRequest.of(0)).getMessage());
+    }
+
+    @Test
+    void firstSliceIsNotPositioned() {
+        KeysetRequest request = KeysetRequest.of(10).sortBy("title");
+
+        assertFalse(request.isPositioned());
+        assertNull(request.getLastValue());
+        assertEquals("title", request.getSortColumn());
+    }
+
+    @Test
+    void afterKeepsTheOrderAndRecordsTheLastRow() {
+        KeysetRequest byKey = KeysetRequest.of(10).descending().after(7);
+        assertTrue(byKey.isPositioned());
+        assertTrue(byKey.isDescending());
+        assertEquals(7, byKey.getLastValue());
+        assertEquals(7, byKey.getLastId());
+
+        KeysetRequest byTitle = KeysetRequest.of(10).sortBy("title").after("Solaris", 3);
+        assertEquals("title", byTitle.getSortColumn());
+        assertEquals("Solaris", byTitle.getLastValue());
+        assertEquals(3, byTitle.getLastId());
+    }
+
+    @Test
+    void lastSliceHasNoNext() {
+        Slice<String> last = new Slice<>(List.of("a"), null);
+
+        assertFalse(last.hasNext());
+        assertThrows(NoSuchElementException.class, last::next);
+    }
+}
@@ -0,0 +1,44 @@
+package org.group05.com.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageRequestTest {
+    @Test
+    void rejectsInvalidPagesAndSizes() {
+        assertEquals("Page index must not be negative: -1",
+                assertThrows(IllegalArgumentException.class, () -> PageRequest.of(-1, 10)).getMessage());
+        assertEquals("Page size must be at least 1: 0",
+                assertThrows(IllegalArgumentException.class, () -> PageRequest.of(0, 0)).getMessage());
+    }
+
+    @Test
+    void offsetDoesNotOverflow() {
+        assertEquals(20, PageRequest.of(2, 10).getOffset());
+        assertEquals((long) Integer.MAX_VALUE * Integer.MAX_VALUE,
+                PageRequest.of(Integer.MAX_VALUE, Integer.MAX_VALUE).getOffset());
+    }
+
+    @Test
+    void nextKeepsSizeAndOrder() {
+        PageRequest next = PageRequest.of(0, 5).sortBy("title").descending().next();
+
+        assertEquals(1, next.getPage());
+        assertEquals(5, next.getSize());
+        assertEquals("title", next.getSortColumn());
+        assertTrue(next.isDescending());
+    }
+
+    @Test
+    void pageCountsItsRows() {
+        Page<String> page = new Page<>(List.of("a", "b"), PageRequest.of(1, 2), 5);
+
+        assertEquals(3, page.getTotalPages());
+        assertTrue(page.hasNext());
+        assertTrue(page.hasPrevious());
+        assertFalse(new Page<>(List.of("e"), PageRequest.of(2, 2), 5).hasNext());
+    }
+}
@@ -0,0 +1,71 @@
+package org.group05.com.repository;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.MySQLEntityManager;
+import org.group05.com.example.Book;
+import org.group05.com.example.ExampleDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginationTest {
+    private EntityManager entityManager;
+    private IRepository<Book> books;
+
+    @BeforeEach
+    void open() throws Exception {
+        entityManager = new MySQLEntityManager(ExampleDatabase.open("pagination"));
+        books = entityManager.createRepo(Book.class);
+    }
+
+    @AfterEach
+    void close() {
+        entityManager.close();
+    }
+
+    @Test
+    void findPageCountsEveryRow() {
+        Page<Book> page = books.findPage(PageRequest.of(0, 2).sortBy("title"));
+
+        assertEquals(List.of("Earthsea", "Solaris"), titles(page.getContent()));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("The Dispossessed"), titles(books.findPage(page.next()).getContent()));
+    }
+
+    @Test
+    void findSliceSeeksPastTheLastRow() {
+        Slice<Book> first = books.findSlice("author_id", "1", KeysetRequest.of(1));
+        assertEquals(List.of("Earthsea"), titles(first.getContent()));
+
+        Slice<Book> second = books.findSlice("author_id", "1", first.next());
+        assertEquals(List.of("The Dispossessed"), titles(second.getContent()));
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void rejectsMissingRequestsAndUnknownColumns() {
+        assertEquals("A PageRequest is required",
+                assertThrows(IllegalArgumentException.class, () -> books.findPage(null)).getMessage());
+        assertEquals("A KeysetRequest is required",
+                assertThrows(IllegalArgumentException.class, () -> books.findSlice(null)).getMessage());
+        assertEquals("Cannot filter Book by title = 'x' OR 1 = 1: it is not a column of the entity",
+                assertThrows(IllegalArgumentException.class,
+                        () -> books.findPage("title = 'x' OR 1 = 1", "x", PageRequest.of(0, 2))).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> books.findSlice("nope", "1", KeysetRequest.of(2)));
+    }
+
+    @Test
+    void findAndStreamRejectUnknownColumns() {
+        assertThrows(IllegalArgumentException.class, () -> books.find("1 = 1 OR title", "x"));
+        assertThrows(IllegalArgumentException.class, () -> books.stream("nope", "x"));
+        assertEquals(2, books.find("AUTHOR_ID", "1").size());
+    }
+
+    private static List<String> titles(List<Book> books) {
+        return books.stream().map(Book::getTitle).toList();
+    }
+}
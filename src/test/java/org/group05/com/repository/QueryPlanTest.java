@@ -0,0 +1,147 @@
+package org.group05.com.repository;
+
+import org.group05.com.annotations.Query;
+import org.group05.com.entity.Employee;
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.PostgresSQLEntityManager;
+import org.group05.com.example.Author;
+import org.group05.com.example.Book;
+import org.group05.com.example.ExampleDatabase;
+import org.group05.com.metadata.EntityMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlanTest {
+    @SuppressWarnings("unused")
+    interface Books {
+        List<Book> findByTitle(String title);
+        List<Book> findByTitleContainingOrTitleStartingWith(String part, String prefix);
+        Stream<Book> streamByAuthor(Author author);
+        long countByAuthor(Integer authorId);
+        Optional<Book> findByIdBetweenOrderByTitleDescId(int from, int to);
+        Set<Book> findAllByTitleIsNotNull();
+        Page<Book> findByTitleLike(String pattern, PageRequest request);
+        CompletableFuture<List<Book>> findByIdLessThanEqual(int id);
+        @Query("SELECT title FROM books WHERE id = ?")
+        String titleOf(int id);
+        List<Book> findByNope(String value);
+        List<Book> findByTitle(String title, String extra);
+        ArrayList<Book> findByIdGreaterThan(int id);
+        Stream<Book> streamByTitle(String title, PageRequest request);
+        CompletableFuture<Stream<Book>> streamByIdNot(int id);
+        List<Book> save(Book book);
+    }
+
+    @SuppressWarnings("unused")
+    interface Employees {
+        List<Employee> findByHireDateAfter(Date date);
+    }
+
+    @Test
+    void derivesSqlFromTheMethodName() throws Exception {
+        assertEquals("SELECT * FROM books WHERE title = ?", plan("findByTitle", String.class).getSql());
+        assertEquals("SELECT * FROM books WHERE id BETWEEN ? AND ? ORDER BY title DESC, id",
+                plan("findByIdBetweenOrderByTitleDescId", int.class, int.class).getSql());
+        assertEquals("SELECT * FROM books WHERE title IS NOT NULL", plan("findAllByTitleIsNotNull").getSql());
+        assertEquals("SELECT * FROM books WHERE id <= ?", plan("findByIdLessThanEqual", int.class).getSql());
+        assertEquals("SELECT COUNT(*) FROM books WHERE author_id = ?", plan("countByAuthor", Integer.class).getSql());
+    }
+
+    @Test
+    void bindsLikePatternsParentKeysAndDates() throws Exception {
+        QueryPlan like = plan("findByTitleContainingOrTitleStartingWith", String.class, String.class);
+        assertEquals("SELECT * FROM books WHERE title LIKE ? OR title LIKE ?", like.getSql());
+        assertArrayEquals(new Object[]{"%sea%", "Ea%"}, like.bind(new Object[]{"sea", "Ea"}));
+
+        Author author = new Author("Lem");
+        EntityMetadata.of(Author.class).setIdValue(author, 2);
+        assertArrayEquals(new Object[]{2}, plan("streamByAuthor", Author.class).bind(new Object[]{author}));
+
+        Method method = Employees.class.getMethod("findByHireDateAfter", Date.class);
+        Object[] params = QueryPlan.compile(method, Employee.class).bind(new Object[]{new Date(0)});
+        assertEquals(new Timestamp(0), params[0]);
+    }
+
+    @Test
+    void readsTheResultKindFromTheReturnType() throws Exception {
+        assertEquals(QueryPlan.ResultKind.LIST, plan("findByTitle", String.class).getResultKind());
+        assertEquals(QueryPlan.ResultKind.STREAM, plan("streamByAuthor", Author.class).getResultKind());
+        assertEquals(QueryPlan.ResultKind.SET, plan("findAllByTitleIsNotNull").getResultKind());
+
+        QueryPlan optional = plan("findByIdBetweenOrderByTitleDescId", int.class, int.class);
+        assertEquals(QueryPlan.ResultKind.OPTIONAL, optional.getResultKind());
+        assertEquals(Optional.empty(), optional.adapt(List.of()));
+
+        QueryPlan count = plan("countByAuthor", Integer.class);
+        assertEquals(QueryPlan.ResultKind.SINGLE, count.getResultKind());
+        assertEquals(0L, count.adapt(List.of()));
+
+        QueryPlan page = plan("findByTitleLike", String.class, PageRequest.class);
+        assertEquals(QueryPlan.ResultKind.PAGE, page.getResultKind());
+        assertEquals(1, page.getPageRequestIndex());
+        assertArrayEquals(new Object[]{"E%"}, page.bind(new Object[]{"E%", PageRequest.of(0, 10)}));
+
+        QueryPlan async = plan("findByIdLessThanEqual", int.class);
+        assertTrue(async.isAsync());
+        assertTrue(async.isEntityResult());
+        assertEquals(Book.class, async.getResultClass());
+    }
+
+    @Test
+    void compilesQueryAnnotations() throws Exception {
+        QueryPlan plan = plan("titleOf", int.class);
+        assertEquals("SELECT title FROM books WHERE id = ?", plan.getSql());
+        assertEquals(String.class, plan.getResultClass());
+        assertFalse(plan.isEntityResult());
+    }
+
+    @Test
+    void executeQueryMapsRowsToThePlanResultClass() throws Exception {
+        try (EntityManager entityManager = new PostgresSQLEntityManager(ExampleDatabase.open("execute-query"))) {
+            IRepository<Book> books = entityManager.createRepo(Book.class);
+            Method titleOf = Books.class.getMethod("titleOf", int.class);
+            assertEquals(List.of("Solaris"), books.executeQuery(titleOf, "SELECT title FROM books WHERE id = ?", 3));
+
+            Method async = Books.class.getMethod("findByIdLessThanEqual", int.class);
+            List<?> rows = books.executeQuery(async, "SELECT * FROM books WHERE id <= ?", 1);
+            assertEquals("Earthsea", ((Book) rows.getFirst()).getTitle());
+        }
+    }
+
+    @Test
+    void setsKeepQueryOrderWithoutDuplicates() throws Exception {
+        Object set = plan("findAllByTitleIsNotNull").adapt(List.of("b", "a", "b"));
+        assertEquals(List.of("b", "a"), new ArrayList<>((Set<?>) set));
+    }
+
+    @Test
+    void ignoresMethodsThatAreNotQueries() throws Exception {
+        assertNull(plan("save", Book.class));
+    }
+
+    @Test
+    void rejectsInvalidMethods() {
+        assertEquals("Method findByNope refers to Nope, which is not a column of Book",
+                assertThrows(IllegalArgumentException.class, () -> plan("findByNope", String.class)).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> plan("findByTitle", String.class, String.class));
+        assertEquals("Method findByIdGreaterThan cannot return ArrayList; declare List, Collection, Iterable or Set",
+                assertThrows(IllegalArgumentException.class, () -> plan("findByIdGreaterThan", int.class)).getMessage());
+        assertThrows(IllegalArgumentException.class, () -> plan("streamByTitle", String.class, PageRequest.class));
+        assertThrows(IllegalArgumentException.class, () -> plan("streamByIdNot", int.class));
+    }
+
+    private static QueryPlan plan(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return QueryPlan.compile(Books.class.getMethod(name, parameterTypes), Book.class);
+    }
+}
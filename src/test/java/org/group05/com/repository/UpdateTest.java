@@ -0,0 +1,68 @@
+package org.group05.com.repository;
+
+import org.group05.com.entityManager.EntityManager;
+import org.group05.com.entityManager.MySQLEntityManager;
+import org.group05.com.example.Book;
+import org.group05.com.example.ExampleDatabase;
+import org.group05.com.metadata.EntityMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpdateTest {
+    private EntityManager entityManager;
+    private IRepository<Book> books;
+
+    @BeforeEach
+    void open() throws Exception {
+        entityManager = new MySQLEntityManager(ExampleDatabase.open("update"));
+        books = entityManager.createRepo(Book.class);
+    }
+
+    @AfterEach
+    void close() {
+        entityManager.close();
+    }
+
+    @Test
+    void updateOfTheLoadedInstanceKeepsItTracked() {
+        Book book = books.find(1);
+        book.setTitle("A Wizard of Earthsea");
+        books.update(book);
+
+        assertSame(book, books.find(1));
+        assertEquals("A Wizard of Earthsea", book.getTitle());
+    }
+
+    @Test
+    void updateOfAnotherInstanceRereadsTheRow() {
+        Book loaded = books.find(1);
+        Book detached = detached(1, "A Wizard of Earthsea");
+        books.update(detached);
+
+        Book found = books.find(1);
+        assertNotSame(detached, found);
+        assertNotSame(loaded, found);
+        assertEquals("A Wizard of Earthsea", found.getTitle());
+        assertEquals(1, found.getAuthor().getId());
+    }
+
+    @Test
+    void updateOfAnEmptyInstanceLeavesTheRowAlone() {
+        books.find(1);
+        books.update(detached(1, null));
+
+        Book found = books.find(1);
+        assertEquals("Earthsea", found.getTitle());
+        assertNotNull(found.getAuthor());
+    }
+
+    private static Book detached(int id, String title) {
+        Book book = new Book();
+        EntityMetadata.of(Book.class).setIdValue(book, id);
+        book.setTitle(title);
+        return book;
+    }
+}